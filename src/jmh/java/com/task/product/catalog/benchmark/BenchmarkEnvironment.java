@@ -0,0 +1,81 @@
+package com.task.product.catalog.benchmark;
+
+import com.task.product.catalog.ProductCatalogApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Локальный embedded Postgres и поднятый поверх него контекст приложения:
+ * без web-слоя для бенчмарков сервисов или с HTTP-сервером на случайном порту для нагрузочных тестов.
+ */
+public class BenchmarkEnvironment implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(final EmbeddedPostgres postgres, final ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    public static BenchmarkEnvironment start(final String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    public static BenchmarkEnvironment startServer(final String... properties) {
+        return start(WebApplicationType.SERVLET, properties);
+    }
+
+    private static BenchmarkEnvironment start(final WebApplicationType webApplicationType, final String... properties) {
+        EmbeddedPostgres postgres;
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        /* Аргументы командной строки, а не default properties: те перекрываются значениями из application.yml. */
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "server.port=0",
+                "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "spring.datasource.username=postgres",
+                "spring.datasource.password=",
+                "logging.level.root=WARN"
+        ));
+        args.addAll(Arrays.asList(properties));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ProductCatalogApplication.class)
+                .web(webApplicationType)
+                .run(args.stream().map(it -> "--" + it).toArray(String[]::new));
+        return new BenchmarkEnvironment(postgres, context);
+    }
+
+    public <T> T getBean(final Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /* Соединения с embedded Postgres в обход пула приложения, с автокоммитом: например, для VACUUM. */
+    public DataSource getPostgresDataSource() {
+        return postgres.getPostgresDatabase();
+    }
+
+    /* Базовый URL API категорий запущенного HTTP-сервера. */
+    public String getBaseUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + context.getEnvironment().getProperty("server.servlet.context-path", "") + "/categories";
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        postgres.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.task.product.catalog.benchmark;
+
+import com.task.product.catalog.domain.model.category.Category;
+import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.service.category.CategoryConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнивает конвертацию списков категорий через {@link CategoryConverter}
+ * с прежней реализацией на {@link BeanUtils#copyProperties(Object, Object)}.
+ * Скорость выделения памяти выводит профилировщик 'gc' (включен в профиле 'benchmark').
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryConverterBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private List<Category> categories;
+
+    private final CategoryConverter categoryConverter = new CategoryConverter();
+
+    @Setup
+    public void setUp() {
+        categories = new ArrayList<>(size);
+        UUID parentId = null;
+        for (int i = 0; i < size; i++) {
+            Category category = new Category("Category " + i, "Description " + i, parentId);
+            categories.add(category);
+            parentId = i % 10 == 0 ? category.getId() : parentId;
+        }
+    }
+
+    @Benchmark
+    public List<CategoryDto> specialized() {
+        return categoryConverter.convertEntityListToDtoList(categories);
+    }
+
+    @Benchmark
+    public List<CategoryDto> beanUtils() {
+        return categories.stream()
+                .map(entity -> {
+                    CategoryDto dto = new CategoryDto();
+                    BeanUtils.copyProperties(entity, dto);
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+}
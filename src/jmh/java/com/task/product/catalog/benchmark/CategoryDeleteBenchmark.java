@@ -0,0 +1,100 @@
+package com.task.product.catalog.benchmark;
+
+import com.task.product.catalog.service.category.CategoryImportService;
+import com.task.product.catalog.service.category.CategoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Types;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Удаление поддерева: каскад внешних ключей против удаления по 'category_closure' одной транзакцией и частями.
+ * <p>
+ * cascade повторяет прежнее поведение: удаляется только корень поддерева,
+ * остальное удаляют каскадные внешние ключи уровень за уровнем.
+ * Поддерево заново импортируется перед каждым измерением, поэтому режим - однократный запуск.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CategoryDeleteBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int subtreeSize;
+
+    @Param({"cascade", "setwise", "chunked"})
+    private String mode;
+
+    private BenchmarkEnvironment environment;
+
+    private CategoryService categoryService;
+
+    private CategoryImportService importService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private UUID parentId;
+
+    private UUID subtreeRootId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start();
+        categoryService = environment.getBean(CategoryService.class);
+        importService = environment.getBean(CategoryImportService.class);
+        jdbcTemplate = environment.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(environment.getBean(PlatformTransactionManager.class));
+
+        SyntheticTree background = SyntheticTree.generate(TreeShape.BALANCED, 10000, null);
+        importService.importCategories(background.getCategories().iterator());
+        parentId = background.getCategories().get(1).getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void importSubtree() {
+        SyntheticTree subtree = SyntheticTree.generate(TreeShape.BALANCED, subtreeSize, parentId);
+        importService.importCategories(subtree.getCategories().iterator());
+        subtreeRootId = subtree.getRootId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+    }
+
+    @Benchmark
+    public Object deleteSubtree() {
+        switch (mode) {
+            case "cascade":
+                return transactionTemplate.execute(status -> jdbcTemplate.update(
+                        "DELETE FROM category WHERE id = ?",
+                        ps -> ps.setObject(1, subtreeRootId, Types.OTHER)));
+            case "setwise":
+                return categoryService.deleteCategory(subtreeRootId);
+            default:
+                return categoryService.deleteCategory(subtreeRootId, 1000);
+        }
+    }
+}
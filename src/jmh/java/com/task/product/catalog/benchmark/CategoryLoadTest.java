@@ -0,0 +1,167 @@
+package com.task.product.catalog.benchmark;
+
+import com.task.product.catalog.representation.category.CategoryImportDto;
+import com.task.product.catalog.service.category.CategoryImportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный тест эндпоинтов чтения по HTTP с большим количеством одновременных соединений.
+ * <p>
+ * Поднимает приложение на embedded Postgres, импортирует синтетическое дерево
+ * и в течение duration секунд держит connections соединений в замкнутом цикле
+ * (каждое соединение отправляет следующий запрос сразу после ответа на предыдущий).
+ * Печатает пропускную способность, перцентили задержки и время получения соединения из пула.
+ * <p>
+ * Аргументы: [connections=1000] [duration=60] [treeSize=100000] [profiles=default].
+ * Профили сравниваются отдельными запусками, например "dev" (настройки пула по умолчанию, show_sql) и "prod".
+ * Запуск:
+ * mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.task.product.catalog.benchmark.CategoryLoadTest -Dexec.args="2000 60"
+ */
+public class CategoryLoadTest {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public static void main(final String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int treeSize = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+        String profiles = args.length > 3 ? args[3] : "default";
+
+        try (BenchmarkEnvironment environment = BenchmarkEnvironment.startServer(
+                "spring.profiles.active=" + profiles,
+                "server.tomcat.max-connections=" + Math.max(8192, connections * 2),
+                "server.tomcat.accept-count=" + connections)) {
+            SyntheticTree tree = SyntheticTree.generate(TreeShape.BALANCED, treeSize, null);
+            environment.getBean(CategoryImportService.class).importCategories(tree.getCategories().iterator());
+            String baseUrl = environment.getBaseUrl();
+            List<CategoryImportDto> categories = tree.getCategories();
+
+            /* Разогрев: JIT, кэши Hibernate и пул соединений. */
+            run(baseUrl, categories, Math.min(connections, 100), 10);
+            Result result = run(baseUrl, categories, connections, durationSeconds);
+
+            Histogram histogram = result.histogram;
+            System.out.printf("profiles=%s connections=%d duration=%ds%n", profiles, connections, durationSeconds);
+            System.out.printf("requests=%d errors=%d throughput=%.0f req/s%n",
+                    histogram.getTotalCount(), result.errors,
+                    histogram.getTotalCount() / (double) durationSeconds);
+            System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+            printPoolAcquireTime(environment.getBean(MeterRegistry.class));
+        }
+    }
+
+    /* Метрика пула Hikari за весь запуск, включая разогрев. */
+    private static void printPoolAcquireTime(final MeterRegistry meterRegistry) {
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (acquire == null) {
+            return;
+        }
+        System.out.printf("pool acquire: count=%d mean=%.3f ms max=%.3f ms%n",
+                acquire.count(), acquire.mean(TimeUnit.MILLISECONDS), acquire.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : acquire.takeSnapshot().percentileValues()) {
+            System.out.printf("pool acquire p%s=%.3f ms%n",
+                    percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static Result run(
+            final String baseUrl,
+            final List<CategoryImportDto> categories,
+            final int connections,
+            final int durationSeconds
+    ) throws InterruptedException {
+        Recorder recorder = new Recorder(3);
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService clients = Executors.newFixedThreadPool(connections);
+        for (int i = 0; i < connections; i++) {
+            clients.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (System.nanoTime() < deadline) {
+                    UUID id = categories.get(random.nextInt(categories.size())).getId();
+                    long start = System.nanoTime();
+                    if (get(nextUrl(baseUrl, id, random.nextInt(3)), buffer)) {
+                        recorder.recordValue(System.nanoTime() - start);
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+        return new Result(recorder.getIntervalHistogram(), errors.get());
+    }
+
+    /* Смесь основных эндпоинтов чтения. */
+    private static String nextUrl(final String baseUrl, final UUID id, final int kind) {
+        switch (kind) {
+            case 0:
+                return baseUrl + "/" + id + "/";
+            case 1:
+                return baseUrl + "/" + id + "/ancestors/";
+            default:
+                return baseUrl + "/" + id + "/descendants/?maxDepth=1";
+        }
+    }
+
+    /* Тело ответа вычитывается полностью, чтобы HttpURLConnection переиспользовал соединение (keep-alive). */
+    private static boolean get(final String url, final byte[] buffer) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestProperty("Accept", "application/json");
+            int status = connection.getResponseCode();
+            InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (body != null) {
+                try (InputStream in = body) {
+                    while (in.read(buffer) != -1) {
+                        // вычитываем ответ
+                    }
+                }
+            }
+            /* 404 - у листа нет потомков, это штатный ответ. */
+            return status < 500;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static class Result {
+
+        private final Histogram histogram;
+
+        private final long errors;
+
+        private Result(final Histogram histogram, final long errors) {
+            this.histogram = histogram;
+            this.errors = errors;
+        }
+    }
+}
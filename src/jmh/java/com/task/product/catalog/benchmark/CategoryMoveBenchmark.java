@@ -0,0 +1,82 @@
+package com.task.product.catalog.benchmark;
+
+import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.service.category.CategoryImportService;
+import com.task.product.catalog.service.category.CategoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перемещение поддерева между двумя родителями.
+ * <p>
+ * Поддерево размера subtreeSize висит в дереве размера treeSize. Время перемещения
+ * должно расти вместе с subtreeSize и почти не зависеть от treeSize.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CategoryMoveBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int subtreeSize;
+
+    @Param({"10000", "100000"})
+    private int treeSize;
+
+    private BenchmarkEnvironment environment;
+
+    private CategoryService categoryService;
+
+    private UUID subtreeRootId;
+
+    private UUID[] parents;
+
+    private int moves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start();
+        categoryService = environment.getBean(CategoryService.class);
+        CategoryImportService importService = environment.getBean(CategoryImportService.class);
+
+        SyntheticTree background = SyntheticTree.generate(TreeShape.BALANCED, treeSize, null);
+        importService.importCategories(background.getCategories().iterator());
+
+        /* Два родителя на одинаковой глубине, чтобы время не зависело от направления перемещения. */
+        parents = new UUID[]{
+                background.getCategories().get(1).getId(),
+                background.getCategories().get(2).getId()
+        };
+        SyntheticTree subtree = SyntheticTree.generate(TreeShape.BALANCED, subtreeSize, parents[0]);
+        importService.importCategories(subtree.getCategories().iterator());
+        subtreeRootId = subtree.getRootId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+    }
+
+    @Benchmark
+    public CategoryDto moveCategory() {
+        return categoryService.moveCategory(subtreeRootId, parents[++moves % 2]);
+    }
+}
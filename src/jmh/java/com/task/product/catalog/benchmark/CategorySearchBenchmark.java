@@ -0,0 +1,91 @@
+package com.task.product.catalog.benchmark;
+
+import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.service.category.CategoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Первая страница поиска категорий на миллионе категорий: цель подсказок при вводе - меньше 10 мс.
+ * <p>
+ * Названия - одно или два слова из словаря в 5000 слов, поэтому префикс из одной буквы соответствует
+ * примерно каждой восьмой категории, из трех букв - сотням категорий, а 'zz' - ни одной.
+ * Категории вставляются SQL напрямую: импорт миллиона категорий занял бы большую часть времени запуска,
+ * а поиску нужны только строки 'category'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CategorySearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"a", "ab", "abi", "pa", "zz"})
+    private String query;
+
+    @Param({"1000000"})
+    private int nodes;
+
+    private BenchmarkEnvironment environment;
+
+    private CategoryService categoryService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start();
+        categoryService = environment.getBean(CategoryService.class);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(environment.getPostgresDataSource());
+        /* Слова из 4-9 букв a-p. Соединения не из пула, поэтому словарь - обычная таблица, а не временная. */
+        jdbcTemplate.execute("" +
+                "CREATE TABLE vocabulary AS " +
+                "SELECT i, translate(substr(md5(i::text), 1, 4 + i % 6), '0123456789', 'ghijklmnop') AS word " +
+                "FROM   generate_series(0, 4999) i");
+        jdbcTemplate.update("" +
+                "INSERT INTO category (id, name, description, parent_id) " +
+                "SELECT md5('root' || g.i)::uuid, initcap(v.word), NULL, NULL " +
+                "FROM   generate_series(1, 1000) g(i) " +
+                "       JOIN vocabulary v ON v.i = g.i * 7 % 5000");
+        jdbcTemplate.update("" +
+                "INSERT INTO category (id, name, description, parent_id) " +
+                "SELECT md5('child' || g.i)::uuid, initcap(v1.word) || ' ' || v2.word, 'About ' || v3.word, " +
+                "       md5('root' || (g.i % 1000 + 1))::uuid " +
+                "FROM   generate_series(1, ? - 1000) g(i) " +
+                "       JOIN vocabulary v1 ON v1.i = g.i * 31 % 5000 " +
+                "       JOIN vocabulary v2 ON v2.i = (g.i * 17 + g.i / 5000) % 5000 " +
+                "       JOIN vocabulary v3 ON v3.i = g.i * 13 % 5000", nodes);
+        jdbcTemplate.execute("DROP TABLE vocabulary");
+        /* Карта видимости и статистика, как после autovacuum. */
+        jdbcTemplate.execute("VACUUM category");
+        jdbcTemplate.execute("ANALYZE category");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+    }
+
+    @Benchmark
+    public Slice<CategoryDto> typeahead() {
+        return categoryService.searchCategories(query, true, null, 0, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,57 @@
+package com.task.product.catalog.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.task.product.catalog.representation.category.CategoryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Сериализация списков {@link CategoryDto} в JSON тем же ObjectMapper, что строит Spring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategorySerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private List<CategoryDto> categories;
+
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, CategoryDto.class));
+        categories = new ArrayList<>(size);
+        UUID parentId = null;
+        for (int i = 0; i < size; i++) {
+            CategoryDto category = new CategoryDto(UUID.randomUUID(), "Category " + i, "Description " + i, parentId);
+            categories.add(category);
+            parentId = i % 10 == 0 ? category.getId() : parentId;
+        }
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws JsonProcessingException {
+        return writer.writeValueAsBytes(categories);
+    }
+}
@@ -0,0 +1,99 @@
+package com.task.product.catalog.benchmark;
+
+import com.task.product.catalog.representation.category.CategoryColumns;
+import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.service.category.CategoryImportService;
+import com.task.product.catalog.service.category.CategoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути {@link CategoryService} на embedded Postgres.
+ * <p>
+ * Форма и размер дерева задаются параметрами, например: -p shape=BALANCED -p nodes=100000.
+ * createCategory добавляет категории под корень, поэтому дерево растет в ходе измерения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CategoryServiceBenchmark {
+
+    @Param({"CHAIN", "WIDE", "BALANCED"})
+    private TreeShape shape;
+
+    @Param({"1000"})
+    private int nodes;
+
+    @Param({"false"})
+    private boolean snapshot;
+
+    private BenchmarkEnvironment environment;
+
+    private CategoryService categoryService;
+
+    private SyntheticTree tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start("catalog.category.snapshot.enabled=" + snapshot);
+        categoryService = environment.getBean(CategoryService.class);
+        tree = SyntheticTree.generate(shape, nodes, null);
+        environment.getBean(CategoryImportService.class).importCategories(tree.getCategories().iterator());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+    }
+
+    @Benchmark
+    public CategoryDto createCategory() {
+        return categoryService.createCategory(new CategoryCreateDto("Created", "Created in benchmark", tree.getRootId()));
+    }
+
+    @Benchmark
+    public Page<CategoryDto> getChildren() {
+        return categoryService.getChildren(tree.getRootId(), 0, 10);
+    }
+
+    @Benchmark
+    public List<CategoryDto> getDescendants() {
+        return categoryService.getDescendants(tree.getRootId(), null);
+    }
+
+    @Benchmark
+    public List<CategoryDto> getAncestors() {
+        return categoryService.getAncestors(tree.getDeepestId());
+    }
+
+    @Benchmark
+    public List<CategoryDto> getCategories() {
+        return categoryService.getCategories();
+    }
+
+    /* Сравнивается с getCategories по времени и, с -prof gc, по выделенной памяти на операцию. */
+    @Benchmark
+    public CategoryColumns getCategoryColumns() {
+        return categoryService.getCategoryColumns();
+    }
+}
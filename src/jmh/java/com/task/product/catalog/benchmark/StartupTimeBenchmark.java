@@ -0,0 +1,109 @@
+package com.task.product.catalog.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время от запуска JVM до первого успешного ответа GET /categories/root/.
+ * <p>
+ * Каждый прогон стартует приложение в отдельной JVM на общем embedded Postgres. Миграции применяются заранее,
+ * поэтому все прогоны стартуют на одинаковой схеме. Печатает время каждого прогона и медиану.
+ * <p>
+ * Команда запуска приложения задается системным свойством startup.command
+ * (по умолчанию "java -jar target/catalog-service-0.0.1-SNAPSHOT.jar"), так сравнивается запуск с архивом
+ * AppCDS и без него.
+ * Аргументы: [profiles=default] [runs=5].
+ * Запуск:
+ * mvn -Pbenchmark package test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.task.product.catalog.benchmark.StartupTimeBenchmark -Dexec.args="fast-startup 10"
+ */
+public class StartupTimeBenchmark {
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    public static void main(final String[] args) throws Exception {
+        String profiles = args.length > 0 ? args[0] : "default";
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        List<String> command = Arrays.asList(System.getProperty(
+                "startup.command", "java -jar target/catalog-service-0.0.1-SNAPSHOT.jar").split(" "));
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+            String jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+
+            long[] millis = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                millis[run] = measure(command, jdbcUrl, profiles);
+                System.out.printf("run %d: %d ms%n", run + 1, millis[run]);
+            }
+            Arrays.sort(millis);
+            System.out.printf("profiles=%s runs=%d median=%d ms min=%d ms max=%d ms%n",
+                    profiles, runs, millis[runs / 2], millis[0], millis[runs - 1]);
+        }
+    }
+
+    private static long measure(final List<String> command, final String jdbcUrl, final String profiles)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> processCommand = new ArrayList<>(command);
+        Collections.addAll(processCommand,
+                "--server.port=" + port,
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.profiles.active=" + profiles,
+                "--logging.level.root=WARN");
+        URL url = new URL("http://localhost:" + port + "/catalog-service/categories/root/");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(processCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("startup-" + port + ".log"))
+                .start();
+        try {
+            while (!respondsOk(url)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue()
+                            + ", see startup-" + port + ".log");
+                }
+                if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS)) {
+                    throw new IllegalStateException("Application did not respond in " + TIMEOUT_MILLIS + " ms");
+                }
+                Thread.sleep(10);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static boolean respondsOk(final URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(100);
+            int status = connection.getResponseCode();
+            connection.disconnect();
+            return status == 200;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.task.product.catalog.benchmark;
+
+import com.task.product.catalog.representation.category.CategoryImportDto;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Синтетическое дерево категорий заданной формы и размера.
+ * Категории упорядочены так, что родитель всегда идет раньше потомков.
+ */
+@Getter
+public class SyntheticTree {
+
+    private static final int BALANCED_FAN_OUT = 10;
+
+    private final List<CategoryImportDto> categories;
+
+    private final UUID rootId;
+
+    /* Самая глубокая категория дерева. */
+    private final UUID deepestId;
+
+    private SyntheticTree(final List<CategoryImportDto> categories, final UUID deepestId) {
+        this.categories = categories;
+        this.rootId = categories.get(0).getId();
+        this.deepestId = deepestId;
+    }
+
+    /**
+     * @param shape    форма дерева
+     * @param size     количество категорий
+     * @param parentId родитель корня дерева, null - дерево корневое
+     */
+    public static SyntheticTree generate(final TreeShape shape, final int size, final UUID parentId) {
+        List<CategoryImportDto> categories = new ArrayList<>(size);
+        categories.add(category(0, parentId));
+        for (int i = 1; i < size; i++) {
+            UUID parent;
+            switch (shape) {
+                case CHAIN:
+                    parent = categories.get(i - 1).getId();
+                    break;
+                case WIDE:
+                    parent = categories.get(0).getId();
+                    break;
+                default:
+                    parent = categories.get((i - 1) / BALANCED_FAN_OUT).getId();
+                    break;
+            }
+            categories.add(category(i, parent));
+        }
+        return new SyntheticTree(categories, categories.get(size - 1).getId());
+    }
+
+    private static CategoryImportDto category(final int index, final UUID parentId) {
+        return new CategoryImportDto(UUID.randomUUID(), "Category " + index, "Synthetic category " + index, parentId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.task.product.catalog.benchmark;
+
+/**
+ * Форма синтетического дерева категорий.
+ */
+public enum TreeShape {
+
+    /* Цепочка: каждая категория - единственный потомок предыдущей. */
+    CHAIN,
+
+    /* Один корень, все остальные категории - его прямые потомки. */
+    WIDE,
+
+    /* Сбалансированное дерево с ветвлением 10. */
+    BALANCED
+
+}
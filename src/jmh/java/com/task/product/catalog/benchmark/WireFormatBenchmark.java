@@ -0,0 +1,102 @@
+package com.task.product.catalog.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.task.product.catalog.representation.category.CategoryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Размер и стоимость сериализации полного списка категорий в разных форматах ответа.
+ * <p>
+ * json-gzip повторяет сжатие ответа Tomcat (server.compression). Размер сообщения каждого формата
+ * печатается при подготовке бенчмарка, время записи и чтения измеряется бенчмарками.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    private String format;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private boolean gzip;
+
+    private List<CategoryDto> categories;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if ("smile".equals(format)) {
+            builder.factory(new SmileFactory());
+        } else if ("cbor".equals(format)) {
+            builder.factory(new CBORFactory());
+        }
+        ObjectMapper objectMapper = builder.build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, CategoryDto.class));
+        reader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, CategoryDto.class));
+        gzip = "json-gzip".equals(format);
+
+        SyntheticTree tree = SyntheticTree.generate(TreeShape.BALANCED, size, null);
+        categories = new ArrayList<>(size);
+        tree.getCategories().forEach(it -> categories.add(
+                new CategoryDto(it.getId(), it.getName(), it.getDescription(), it.getParentId())));
+        payload = write();
+        System.out.printf("%n%s, %d categories: %d bytes (%.1f bytes per category)%n",
+                format, size, payload.length, payload.length / (double) size);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            writer.writeValue(out, categories);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<CategoryDto> read() throws IOException {
+        try (InputStream in = gzip
+                ? new GZIPInputStream(new ByteArrayInputStream(payload))
+                : new ByteArrayInputStream(payload)) {
+            return reader.readValue(in);
+        }
+    }
+}
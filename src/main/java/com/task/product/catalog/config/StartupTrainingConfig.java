@@ -0,0 +1,54 @@
+package com.task.product.catalog.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Обучающий запуск для архива классов AppCDS (catalog.startup.exit-on-ready).
+ * <p>
+ * После старта приложение один раз запрашивает корневые категории, чтобы в архив попали и классы
+ * обработки первого запроса, и завершается. JVM пишет архив при выходе (-XX:ArchiveClassesAtExit).
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.startup.exit-on-ready", havingValue = "true")
+@Slf4j
+public class StartupTrainingConfig {
+
+    private final ApplicationContext context;
+
+    private final Environment environment;
+
+    public StartupTrainingConfig(final ApplicationContext context, final Environment environment) {
+        this.context = context;
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exitAfterFirstRequest() {
+        String url = "http://localhost:" + environment.getProperty("local.server.port")
+                + environment.getProperty("server.servlet.context-path", "") + "/categories/root/";
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                while (body.read() != -1) {
+                    // дочитываем ответ целиком
+                }
+            }
+            log.info("Training request returned {}", connection.getResponseCode());
+        } catch (IOException exception) {
+            log.warn("Training request to {} failed", url, exception);
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
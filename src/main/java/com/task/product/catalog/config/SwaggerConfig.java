@@ -1,5 +1,6 @@
 package com.task.product.catalog.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.ApiInfoBuilder;
@@ -11,8 +12,13 @@ import springfox.documentation.spring.web.plugins.Docket;
 
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+/**
+ * Документация API. Сканирование контроллеров Springfox заметно удлиняет старт,
+ * поэтому профиль fast-startup выключает ее (catalog.swagger.enabled).
+ */
 @Configuration
 @EnableSwagger2
+@ConditionalOnProperty(name = "catalog.swagger.enabled", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
     @Bean
     public Docket api() {
@@ -0,0 +1,34 @@
+package com.task.product.catalog.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Конвертеры двоичных форматов Smile и CBOR.
+ * ObjectMapper строится тем же настроенным Spring Boot builder'ом, что и для JSON,
+ * поэтому настройки 'spring.jackson.*' и модули действуют во всех форматах одинаково.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            final Jackson2ObjectMapperBuilder objectMapperBuilder
+    ) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+            final Jackson2ObjectMapperBuilder objectMapperBuilder
+    ) {
+        return new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,94 @@
+package com.task.product.catalog.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.task.product.catalog.representation.category.CategoryColumns;
+
+import java.io.IOException;
+
+/**
+ * Пишет {@link CategoryColumns} плоским массивом категорий с теми же полями, что у CategoryDto.
+ * <p>
+ * Значения берутся прямо из столбцов: имена и описания передаются генератору готовыми байтами UTF-8,
+ * id форматируются в переиспользуемый буфер, поэтому на категорию не создается ни одного объекта.
+ * Генераторы Smile и CBOR получают id 16 байтами, как и от сериализатора UUID Jackson.
+ */
+final class CategoryColumnsWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final JsonGenerator generator;
+
+    private final boolean binaryIds;
+
+    private final char[] idChars = new char[36];
+
+    private final byte[] idBytes = new byte[16];
+
+    private CategoryColumnsWriter(final JsonGenerator generator) {
+        this.generator = generator;
+        this.binaryIds = generator.canWriteBinaryNatively();
+    }
+
+    static void write(final CategoryColumns columns, final JsonGenerator generator) throws IOException {
+        new CategoryColumnsWriter(generator).writeAll(columns);
+    }
+
+    private void writeAll(final CategoryColumns columns) throws IOException {
+        byte[] text = columns.getText();
+        generator.writeStartArray();
+        for (int row = 0; row < columns.size(); row++) {
+            generator.writeStartObject();
+            generator.writeFieldName("id");
+            writeId(columns.getIdMostSignificantBits(row), columns.getIdLeastSignificantBits(row));
+            generator.writeFieldName("name");
+            if (columns.isNameNull(row)) {
+                generator.writeNull();
+            } else {
+                generator.writeUTF8String(text, columns.getNameOffset(row), columns.getNameLength(row));
+            }
+            generator.writeFieldName("description");
+            if (columns.isDescriptionNull(row)) {
+                generator.writeNull();
+            } else {
+                generator.writeUTF8String(text, columns.getDescriptionOffset(row), columns.getDescriptionLength(row));
+            }
+            generator.writeFieldName("parentId");
+            int parent = columns.getParent(row);
+            if (parent == CategoryColumns.NO_PARENT) {
+                generator.writeNull();
+            } else {
+                writeId(columns.getIdMostSignificantBits(parent), columns.getIdLeastSignificantBits(parent));
+            }
+            generator.writeNumberField("childCount", columns.getChildCount(row));
+            generator.writeNumberField("descendantCount", columns.getDescendantCount(row));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeId(final long mostSignificantBits, final long leastSignificantBits) throws IOException {
+        if (binaryIds) {
+            for (int i = 0; i < 8; i++) {
+                idBytes[i] = (byte) (mostSignificantBits >>> (56 - 8 * i));
+                idBytes[8 + i] = (byte) (leastSignificantBits >>> (56 - 8 * i));
+            }
+            generator.writeBinary(idBytes);
+            return;
+        }
+        /* Формат UUID.toString(): 8-4-4-4-12 шестнадцатеричных цифр. */
+        int position = 0;
+        for (int nibble = 15; nibble >= 0; nibble--) {
+            idChars[position++] = HEX[(int) (mostSignificantBits >>> (4 * nibble)) & 0xF];
+            if (nibble == 8 || nibble == 4 || nibble == 0) {
+                idChars[position++] = '-';
+            }
+        }
+        for (int nibble = 15; nibble >= 0; nibble--) {
+            idChars[position++] = HEX[(int) (leastSignificantBits >>> (4 * nibble)) & 0xF];
+            if (nibble == 12) {
+                idChars[position++] = '-';
+            }
+        }
+        generator.writeString(idChars, 0, idChars.length);
+    }
+}
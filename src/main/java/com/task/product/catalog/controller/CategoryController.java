@@ -1,19 +1,51 @@
 package com.task.product.catalog.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.product.catalog.representation.category.CategoryBatchCreateDto;
+import com.task.product.catalog.representation.category.CategoryBatchDto;
+import com.task.product.catalog.representation.category.CategoryBatchGetDto;
+import com.task.product.catalog.representation.category.CategoryChangeFeedDto;
+import com.task.product.catalog.representation.category.CategoryColumns;
 import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryCursorPageDto;
+import com.task.product.catalog.representation.category.CategoryDeleteResultDto;
 import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.representation.category.CategoryImportDto;
+import com.task.product.catalog.representation.category.CategoryImportResultDto;
+import com.task.product.catalog.representation.category.CategoryMoveDto;
+import com.task.product.catalog.service.BadRequestException;
+import com.task.product.catalog.service.category.CategoryImportService;
 import com.task.product.catalog.service.category.CategoryService;
+import com.task.product.catalog.service.category.CategoryVersionTracker;
 import com.task.product.catalog.representation.category.CategoryUpdateDto;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController()
 @RequestMapping("/categories")
@@ -23,8 +55,36 @@ public class CategoryController {
 
     private CategoryService categoryService;
 
-    public CategoryController(final CategoryService categoryService) {
+    private CategoryImportService categoryImportService;
+
+    private ObjectMapper objectMapper;
+
+    private JsonFactory smileFactory;
+
+    private JsonFactory cborFactory;
+
+    private CategoryVersionTracker categoryVersionTracker;
+
+    private CacheControl cacheControl;
+
+    public CategoryController(
+            final CategoryService categoryService,
+            final CategoryImportService categoryImportService,
+            final ObjectMapper objectMapper,
+            final MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter,
+            final MappingJackson2CborHttpMessageConverter cborHttpMessageConverter,
+            final CategoryVersionTracker categoryVersionTracker,
+            @Value("${catalog.http.cache.max-age:0s}") final Duration cacheMaxAge
+    ) {
         this.categoryService = categoryService;
+        this.categoryImportService = categoryImportService;
+        this.objectMapper = objectMapper;
+        this.smileFactory = smileHttpMessageConverter.getObjectMapper().getFactory();
+        this.cborFactory = cborHttpMessageConverter.getObjectMapper().getFactory();
+        this.categoryVersionTracker = categoryVersionTracker;
+        this.cacheControl = cacheMaxAge.isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(cacheMaxAge).mustRevalidate();
     }
 
     @ApiOperation(value = "Creates a new category.")
@@ -33,6 +93,30 @@ public class CategoryController {
         return ResponseUtils.createResponse(categoryService.createCategory(categoryCreateDto));
     }
 
+    @ApiOperation(value = "Creates many categories under existing parents in one transaction, in request order.")
+    @PostMapping(value = "/batch-create", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<List<CategoryDto>> createCategories(@RequestBody @Valid CategoryBatchCreateDto batchCreateDto) {
+        return ResponseUtils.createResponse(categoryService.createCategories(batchCreateDto.getCategories()));
+    }
+
+    @ApiOperation(value = "Imports a tree or a forest of categories from a JSON array or NDJSON stream.")
+    @PostMapping(value = "/import/", consumes = {"application/json", "application/x-ndjson"}, produces = "application/json")
+    public ResponseEntity<CategoryImportResultDto> importCategories(final HttpServletRequest request) throws IOException {
+        /* Корневой JSON-массив и NDJSON читаются одинаково: по одному элементу за раз. */
+        try (MappingIterator<CategoryImportDto> categories =
+                     objectMapper.readerFor(CategoryImportDto.class).readValues(request.getInputStream())) {
+            return ResponseUtils.createResponse(categoryImportService.importCategories(categories));
+        } catch (JsonProcessingException exception) {
+            throw new BadRequestException(exception.getOriginalMessage());
+        } catch (RuntimeException exception) {
+            /* MappingIterator оборачивает ошибки разбора (обрыв потока, неверный синтаксис) в RuntimeException. */
+            if (exception.getCause() instanceof JsonProcessingException) {
+                throw new BadRequestException(((JsonProcessingException) exception.getCause()).getOriginalMessage());
+            }
+            throw exception;
+        }
+    }
+
     @ApiOperation(value = "Updates the category.")
     @PutMapping(value = "/{categoryId}/", consumes = "application/json", produces = "application/json")
     public ResponseEntity<CategoryDto> updateCategory(
@@ -42,44 +126,190 @@ public class CategoryController {
         return ResponseUtils.createResponse(categoryService.updateCategory(categoryId, categoryUpdateDto));
     }
 
-    @ApiOperation(value = "Deletes the category.")
+    @ApiOperation(value = "Moves the category with its whole subtree under another parent.")
+    @PutMapping(value = "/{categoryId}/parent/", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<CategoryDto> moveCategory(
+            @PathVariable final UUID categoryId,
+            @RequestBody CategoryMoveDto categoryMoveDto
+    ) {
+        return ResponseUtils.createResponse(categoryService.moveCategory(categoryId, categoryMoveDto.getParentId()));
+    }
+
+    @ApiOperation(value = "Deletes the category with its whole subtree, optionally in chunks of chunkSize categories.")
     @DeleteMapping(value = "/{categoryId}/", produces = "application/json")
-    public void deleteCategory(@PathVariable final UUID categoryId) {
-        categoryService.deleteCategory(categoryId);
+    public ResponseEntity<CategoryDeleteResultDto> deleteCategory(
+            @PathVariable final UUID categoryId,
+            @RequestParam(name = "chunkSize", required = false) Integer chunkSize
+    ) {
+        return ResponseUtils.createResponse(chunkSize == null
+                ? categoryService.deleteCategory(categoryId)
+                : categoryService.deleteCategory(categoryId, chunkSize));
     }
 
     @ApiOperation(value = "Gets the category by id.")
-    @GetMapping(value = "/{categoryId}/", produces = "application/json")
-    public ResponseEntity<CategoryDto> getCategory(@PathVariable final UUID categoryId) {
-        return ResponseUtils.createResponse(categoryService.getCategory(categoryId));
+    @GetMapping(value = "/{categoryId}/", produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
+    public ResponseEntity<CategoryDto> getCategory(@PathVariable final UUID categoryId, final WebRequest request) {
+        return cachedResponse(request, () -> categoryService.getCategory(categoryId));
     }
 
+    /* Категории пишутся прямо из столбцов, без списка CategoryDto. */
     @ApiOperation(value = "Gets a list of all the categories.")
-    @GetMapping(produces = "application/json")
-    public ResponseEntity<List<CategoryDto>> getCategories() {
-        return ResponseUtils.createResponse(categoryService.getCategories());
+    @GetMapping(produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
+    public ResponseEntity<StreamingResponseBody> getCategories(final WebRequest request) {
+        String format = WireFormat.select(request.getHeader(HttpHeaders.ACCEPT));
+        ResponseEntity<StreamingResponseBody> response = cachedResponse(request, () -> {
+            CategoryColumns columns = categoryService.getCategoryColumns();
+            return columns.size() == 0 ? null : columnsBody(columns, format);
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.setContentType(MediaType.parseMediaType(format));
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    @ApiOperation(value = "Gets all the categories as a nested tree (shape=tree).")
+    @GetMapping(params = "shape=tree", produces = "application/json")
+    public ResponseEntity<StreamingResponseBody> getCategoryTree(final WebRequest request) {
+        return cachedResponse(request, () -> treeBody(categoryService.getCategories()));
+    }
+
+    @ApiOperation(value = "Gets many categories by id in one request, in request order, reporting missing ids.")
+    @PostMapping(
+            value = "/batch-get",
+            consumes = "application/json",
+            produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR}
+    )
+    public ResponseEntity<CategoryBatchDto> getCategoriesByIds(@RequestBody @Valid CategoryBatchGetDto batchGetDto) {
+        return ResponseUtils.createResponse(
+                categoryService.getCategories(batchGetDto.getIds(), batchGetDto.isIncludeAncestors()));
+    }
+
+    @ApiOperation(value = "Streams all the categories as NDJSON while they are read from the database.")
+    @GetMapping(produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamCategories() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                /* Строки разделяет только '\n': иначе генератор добавляет пробел перед каждым следующим значением. */
+                generator.setRootValueSeparator(null);
+                categoryService.streamCategories(category -> {
+                    try {
+                        generator.writeObject(category);
+                        generator.writeRaw('\n');
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok(body);
+    }
+
+    @ApiOperation(value = "Gets a page of all the categories ordered by id, starting after a given category id.")
+    @GetMapping(value = "/page/", produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
+    public ResponseEntity<CategoryCursorPageDto> getCategoriesPage(
+            @RequestParam(name = "after", required = false) UUID after,
+            @RequestParam(name = "limit", required = false, defaultValue = "100") Integer limit,
+            final WebRequest request
+    ) {
+        return cachedResponse(request, () -> categoryService.getCategories(after, limit));
+    }
+
+    /* Лента меняется публикатором, а не операциями записи, поэтому версия каталога для ETag здесь не подходит. */
+    @ApiOperation(value = "Gets published category changes after a given feed position for incremental sync.")
+    @GetMapping(value = "/changes/", produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
+    public ResponseEntity<CategoryChangeFeedDto> getChanges(
+            @RequestParam(name = "since", required = false, defaultValue = "0") Long since,
+            @RequestParam(name = "limit", required = false, defaultValue = "100") Integer limit
+    ) {
+        return ResponseUtils.createResponse(categoryService.getChanges(since, limit));
+    }
+
+    @ApiOperation(value = "Searches categories by name prefix (typeahead) or by full text of name and description, "
+            + "optionally within a subtree.")
+    @GetMapping(value = "/search/", produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
+    public ResponseEntity<Slice<CategoryDto>> searchCategories(
+            @RequestParam(name = "q") String text,
+            @RequestParam(name = "mode", required = false, defaultValue = "prefix") String mode,
+            @RequestParam(name = "within", required = false) UUID withinCategoryId,
+            @RequestParam(name = "page", required = false, defaultValue = "0") Integer page,
+            @RequestParam(name = "size", required = false, defaultValue = "20") Integer size,
+            final WebRequest request
+    ) {
+        if (!"prefix".equals(mode) && !"fulltext".equals(mode)) {
+            throw new BadRequestException("Search mode should be \"prefix\" or \"fulltext\".");
+        }
+        return cachedResponse(request, () -> categoryService.searchCategories(
+                text, "prefix".equals(mode), withinCategoryId, page, size));
     }
 
     @ApiOperation(value = "Gets the root categories.")
-    @GetMapping(value = "/root/", produces = "application/json")
-    public ResponseEntity<List<CategoryDto>> getRootCategories() {
-        return ResponseUtils.createResponse(categoryService.getRootCategories());
+    @GetMapping(value = "/root/", produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
+    public ResponseEntity<List<CategoryDto>> getRootCategories(final WebRequest request) {
+        return cachedResponse(request, () -> categoryService.getRootCategories());
     }
 
-    @ApiOperation(value = "Gets all descendants of a given category node.")
-    @GetMapping(value = "/{categoryId}/descendants/", produces = "application/json")
-    public ResponseEntity<List<CategoryDto>> getDescendants(@PathVariable final UUID categoryId) {
-        return ResponseUtils.createResponse(categoryService.getDescendants(categoryId));
+    @ApiOperation(value = "Gets all descendants of a given category node, optionally limited by depth.")
+    @GetMapping(value = "/{categoryId}/descendants/", produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
+    public ResponseEntity<List<CategoryDto>> getDescendants(
+            @PathVariable final UUID categoryId,
+            @RequestParam(name = "maxDepth", required = false) Integer maxDepth,
+            final WebRequest request
+    ) {
+        return cachedResponse(request, () -> categoryService.getDescendants(categoryId, maxDepth));
+    }
+
+    @ApiOperation(value = "Gets all descendants of a given category node as a nested tree (shape=tree).")
+    @GetMapping(value = "/{categoryId}/descendants/", params = "shape=tree", produces = "application/json")
+    public ResponseEntity<StreamingResponseBody> getDescendantTree(
+            @PathVariable final UUID categoryId,
+            @RequestParam(name = "maxDepth", required = false) Integer maxDepth,
+            final WebRequest request
+    ) {
+        return cachedResponse(request, () -> treeBody(categoryService.getDescendants(categoryId, maxDepth)));
+    }
+
+    @ApiOperation(value = "Gets the path from the root to a given category node (breadcrumbs).")
+    @GetMapping(value = "/{categoryId}/ancestors/", produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
+    public ResponseEntity<List<CategoryDto>> getAncestors(@PathVariable final UUID categoryId, final WebRequest request) {
+        return cachedResponse(request, () -> categoryService.getAncestors(categoryId));
     }
 
     @ApiOperation(value = "Gets paged list of the children of a given category node.")
-    @GetMapping(value = "/{categoryId}/children/", produces = "application/json")
+    @GetMapping(value = "/{categoryId}/children/", produces = {WireFormat.JSON, WireFormat.SMILE, WireFormat.CBOR})
     public ResponseEntity<Page<CategoryDto>> getChildren(
             @PathVariable final UUID categoryId,
             @RequestParam(name = "page", required = false, defaultValue = "0") Integer page,
-            @RequestParam(name = "size", required = false, defaultValue = "10") Integer size
+            @RequestParam(name = "size", required = false, defaultValue = "10") Integer size,
+            final WebRequest request
     ) {
-        return ResponseUtils.createResponse(categoryService.getChildren(categoryId, page, size));
+        return cachedResponse(request, () -> categoryService.getChildren(categoryId, page, size));
+    }
+
+    /* Данные читаются сразу, а дерево собирается и пишется уже при выдаче ответа. */
+    private StreamingResponseBody treeBody(final List<CategoryDto> categories) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                CategoryTreeJsonWriter.write(categories, generator);
+            }
+        };
+    }
+
+    private StreamingResponseBody columnsBody(final CategoryColumns columns, final String format) {
+        JsonFactory factory = WireFormat.SMILE.equals(format) ? smileFactory
+                : WireFormat.CBOR.equals(format) ? cborFactory
+                : objectMapper.getFactory();
+        return outputStream -> {
+            try (JsonGenerator generator = factory.createGenerator(outputStream)) {
+                CategoryColumnsWriter.write(columns, generator);
+            }
+        };
+    }
+
+    /* ETag вычисляется до чтения данных: версия, полученная раньше данных, не может оказаться новее них. */
+    private <T> ResponseEntity<T> cachedResponse(final WebRequest request, final Supplier<T> body) {
+        String eTag = "\"" + categoryVersionTracker.currentVersion()
+                + WireFormat.eTagSuffix(request.getHeader(HttpHeaders.ACCEPT)) + "\"";
+        return ResponseUtils.createCachedResponse(request, eTag, cacheControl, body);
     }
 
 }
@@ -0,0 +1,104 @@
+package com.task.product.catalog.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.task.product.catalog.representation.category.CategoryDto;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Пишет плоский список категорий вложенным деревом JSON: каждая категория с полем 'children'.
+ * <p>
+ * Дерево собирается за один линейный проход по списку с индексом по id: дети хранятся списками
+ * в массивах индексов, вложенные объекты не создаются. Затем дерево обходится без рекурсии
+ * и сразу пишется в JsonGenerator, поэтому глубина дерева не ограничена размером стека.
+ * <p>
+ * Корни - категории, родителя которых нет в списке. Братья пишутся в порядке списка, сам список
+ * не сортируется: сервис отдает категории, упорядоченные по (name, id) базой или снимком дерева,
+ * поэтому порядок совпадает с сортировкой базы, а одинаковые данные дают одинаковые байты ответа.
+ */
+final class CategoryTreeJsonWriter {
+
+    private static final int NONE = -1;
+
+    private CategoryTreeJsonWriter() {
+    }
+
+    static void write(final List<CategoryDto> categories, final JsonGenerator generator) throws IOException {
+        CategoryDto[] nodes = categories.toArray(new CategoryDto[0]);
+
+        Map<UUID, Integer> indexById = new HashMap<>(nodes.length * 4 / 3 + 1);
+        for (int i = 0; i < nodes.length; i++) {
+            indexById.put(nodes[i].getId(), i);
+        }
+
+        /* Списки детей в порядке списка: первый ребенок, следующий брат, последний ребенок (для добавления). */
+        int[] firstChild = new int[nodes.length];
+        int[] lastChild = new int[nodes.length];
+        int[] nextSibling = new int[nodes.length];
+        Arrays.fill(firstChild, NONE);
+        Arrays.fill(nextSibling, NONE);
+        int firstRoot = NONE;
+        int lastRoot = NONE;
+        for (int i = 0; i < nodes.length; i++) {
+            Integer parent = nodes[i].getParentId() == null ? null : indexById.get(nodes[i].getParentId());
+            if (parent == null) {
+                if (firstRoot == NONE) {
+                    firstRoot = i;
+                } else {
+                    nextSibling[lastRoot] = i;
+                }
+                lastRoot = i;
+            } else {
+                if (firstChild[parent] == NONE) {
+                    firstChild[parent] = i;
+                } else {
+                    nextSibling[lastChild[parent]] = i;
+                }
+                lastChild[parent] = i;
+            }
+        }
+
+        /* Обход в глубину: path - открытые (еще не закрытые) объекты от корня до текущего узла. */
+        int[] path = new int[nodes.length];
+        int top = 0;
+        int node = firstRoot;
+        generator.writeStartArray();
+        while (node != NONE || top > 0) {
+            if (node != NONE) {
+                writeFields(nodes[node], generator);
+                generator.writeArrayFieldStart("children");
+                path[top++] = node;
+                node = firstChild[node];
+            } else {
+                int finished = path[--top];
+                generator.writeEndArray();
+                generator.writeEndObject();
+                node = nextSibling[finished];
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeFields(final CategoryDto category, final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", category.getId().toString());
+        generator.writeStringField("name", category.getName());
+        generator.writeStringField("description", category.getDescription());
+        if (category.getParentId() != null) {
+            generator.writeStringField("parentId", category.getParentId().toString());
+        } else {
+            generator.writeNullField("parentId");
+        }
+        if (category.getChildCount() != null) {
+            generator.writeNumberField("childCount", category.getChildCount());
+        }
+        if (category.getDescendantCount() != null) {
+            generator.writeNumberField("descendantCount", category.getDescendantCount());
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.task.product.catalog.controller;
 
 import com.task.product.catalog.representation.ErrorResponseDto;
+import com.task.product.catalog.service.BadRequestException;
 import com.task.product.catalog.service.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
@@ -16,6 +19,7 @@ import org.springframework.web.context.request.WebRequest;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
@@ -29,6 +33,31 @@ public class ResponseUtils {
         return ResponseEntity.ok(body);
     }
 
+    /**
+     * Ответ с ETag для условного GET.
+     * Если ETag совпал с 'If-None-Match', возвращается 304 без вычисления тела.
+     * Представление выбирается по 'Accept', поэтому кэши должны учитывать этот заголовок.
+     */
+    public static <T> ResponseEntity<T> createCachedResponse(
+            final WebRequest request,
+            final String eTag,
+            final CacheControl cacheControl,
+            final Supplier<T> body
+    ) {
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        T value = body.get();
+        if (isEmpty(value)) {
+            throw new NotFoundException("NOT FOUND");
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).body(value);
+    }
+
     private static boolean isEmpty(final Object object) {
         if (object == null) {
             return true;
@@ -48,6 +77,14 @@ public class ResponseUtils {
         );
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity badRequestExceptionHandler(final BadRequestException exception, WebRequest request) {
+        logException(exception, request);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                new ErrorResponseDto(HttpStatus.BAD_REQUEST.value(), exception.getMessage(), Instant.now())
+        );
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity validationExceptionHandler(final MethodArgumentNotValidException exception, WebRequest request) {
         logException(exception, request);
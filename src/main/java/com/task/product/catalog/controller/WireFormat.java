@@ -0,0 +1,68 @@
+package com.task.product.catalog.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Форматы ответов эндпоинтов чтения, выбираемые по заголовку 'Accept'.
+ * <p>
+ * JSON - формат по умолчанию. Smile и CBOR - двоичные форматы Jackson с той же структурой, что и JSON:
+ * UUID в них пишутся 16 байтами вместо 36-символьной строки, а имена полей повторно не передаются (Smile).
+ */
+final class WireFormat {
+
+    static final String JSON = MediaType.APPLICATION_JSON_VALUE;
+
+    static final String SMILE = "application/x-jackson-smile";
+
+    static final String CBOR = MediaType.APPLICATION_CBOR_VALUE;
+
+    /* Порядок совпадает с 'produces' эндпоинтов: при равном весе выигрывает первый, как у конвертеров Spring. */
+    private static final List<MediaType> PRODUCIBLE = Arrays.asList(
+            MediaType.APPLICATION_JSON, MediaType.valueOf(SMILE), MediaType.APPLICATION_CBOR);
+
+    private WireFormat() {
+    }
+
+    /**
+     * Формат ответа, который пишется в обход конвертеров сообщений.
+     * Выбирается так же, как его выбрали бы конвертеры: запрошенные типы упорядочиваются по весу (q)
+     * и конкретности, побеждает первый совместимый из поддерживаемых форматов.
+     * Без заголовка, с неразбираемым заголовком или без совместимых типов - JSON.
+     */
+    static String select(final String accept) {
+        if (accept == null) {
+            return JSON;
+        }
+        List<MediaType> requested;
+        try {
+            requested = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException exception) {
+            return JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(requested);
+        for (MediaType mediaType : requested) {
+            for (MediaType producible : PRODUCIBLE) {
+                if (mediaType.isCompatibleWith(producible)) {
+                    return producible.toString();
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /* Суффикс ETag выбранного формата: у разных представлений одной версии данных разные байты. */
+    static String eTagSuffix(final String accept) {
+        String format = select(accept);
+        if (SMILE.equals(format)) {
+            return "-smile";
+        }
+        if (CBOR.equals(format)) {
+            return "-cbor";
+        }
+        return "";
+    }
+}
@@ -0,0 +1,82 @@
+package com.task.product.catalog.datasource;
+
+import com.task.product.catalog.service.category.CategoryChangedEvent;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes при чтении с реплик.
+ * <p>
+ * После коммита записи клиенту ставится cookie с моментом записи. Запросы клиента с этим cookie
+ * в течение окна window читают основную базу. Окно должно быть не меньше допустимого отставания реплики
+ * плюс интервал проверки: реплика, отставшая сильнее, выводится из ротации {@link ReplicaHealthChecker}.
+ * Клиенты без поддержки cookie получают только монотонность в пределах одного запроса.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String LAST_WRITE_COOKIE = "catalog-last-write";
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(final Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (isRecentWrite(WebUtils.getCookie(request, LAST_WRITE_COOKIE))) {
+            ReplicaRoutingContext.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingContext.clear();
+        }
+    }
+
+    /* Слушатель вызывается до записи тела ответа, поэтому cookie еще можно поставить. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(final CategoryChangedEvent event) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        ReplicaRoutingContext.pinToPrimary();
+        HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(System.currentTimeMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) window.getSeconds() + 1);
+            response.addCookie(cookie);
+        }
+    }
+
+    private boolean isRecentWrite(final Cookie cookie) {
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return System.currentTimeMillis() - Long.parseLong(cookie.getValue()) < window.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
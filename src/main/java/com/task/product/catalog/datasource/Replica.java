@@ -0,0 +1,37 @@
+package com.task.product.catalog.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+
+/**
+ * Реплика базы для чтения: собственный пул соединений и состояние по последней проверке {@link ReplicaHealthChecker}.
+ */
+@Getter
+public class Replica {
+
+    private final String name;
+
+    private final HikariDataSource dataSource;
+
+    private volatile boolean healthy = true;
+
+    /* Отставание от основной базы по последней проверке, секунды. */
+    private volatile double lagSeconds;
+
+    public Replica(final String name, final HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    /* Занятые соединения и ожидающие соединения потоки. */
+    public int getLoad() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+    }
+
+    void update(final boolean healthy, final double lagSeconds) {
+        this.healthy = healthy;
+        this.lagSeconds = lagSeconds;
+    }
+}
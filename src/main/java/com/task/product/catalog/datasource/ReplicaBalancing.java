@@ -0,0 +1,40 @@
+package com.task.product.catalog.datasource;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выбор реплики для транзакции только для чтения (catalog.datasource.replicas.balancing).
+ */
+public enum ReplicaBalancing {
+
+    ROUND_ROBIN {
+        @Override
+        Replica choose(final List<Replica> healthy, final AtomicInteger counter) {
+            return healthy.get(Math.floorMod(counter.getAndIncrement(), healthy.size()));
+        }
+    },
+
+    /* Реплика с наименьшим числом занятых соединений: медленная реплика получает меньше транзакций. */
+    LEAST_CONNECTIONS {
+        @Override
+        Replica choose(final List<Replica> healthy, final AtomicInteger counter) {
+            return healthy.stream().min(Comparator.comparingInt(Replica::getLoad)).get();
+        }
+    };
+
+    abstract Replica choose(List<Replica> healthy, AtomicInteger counter);
+
+    public static ReplicaBalancing of(final String value) {
+        switch (value) {
+            case "round-robin":
+                return ROUND_ROBIN;
+            case "least-connections":
+                return LEAST_CONNECTIONS;
+            default:
+                throw new IllegalStateException("Unknown replica balancing \"" + value
+                        + "\", expected \"round-robin\" or \"least-connections\".");
+        }
+    }
+}
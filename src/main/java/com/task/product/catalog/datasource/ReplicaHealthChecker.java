@@ -0,0 +1,97 @@
+package com.task.product.catalog.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Периодически проверяет реплики и выводит из ротации недоступные и отставшие больше чем на maxLag.
+ * Реплика возвращается в ротацию первой успешной проверкой.
+ * <p>
+ * Отставание - ноль, если реплика уже применила WAL до позиции основной базы на момент начала проверки,
+ * иначе - время с последней примененной транзакции. Сервер, который не является standby, считается неотстающим.
+ * <p>
+ * Метрики: catalog.datasource.replica.lag (секунды) и catalog.datasource.replica.healthy (1/0), тег replica.
+ */
+@Slf4j
+public class ReplicaHealthChecker {
+
+    private static final String REPLICA_LAG = "" +
+            "SELECT CASE " +
+            "         WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "         WHEN ?::pg_lsn IS NOT NULL AND pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0 " +
+            "         ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp())::float8, " +
+            "                       'Infinity'::float8) " +
+            "       END::float8";
+
+    private final JdbcTemplate primary;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    private final double maxLagSeconds;
+
+    public ReplicaHealthChecker(
+            final DataSource primary,
+            final ReplicaRoutingDataSource routingDataSource,
+            final Duration maxLag,
+            final MeterRegistry meterRegistry
+    ) {
+        this.primary = new JdbcTemplate(primary);
+        this.routingDataSource = routingDataSource;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        for (Replica replica : routingDataSource.getReplicas()) {
+            Gauge.builder("catalog.datasource.replica.lag", replica, Replica::getLagSeconds)
+                    .tag("replica", replica.getName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("catalog.datasource.replica.healthy", replica, it -> it.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.datasource.replicas.health-check-interval:PT1S}")
+    public void checkReplicas() {
+        String primaryLsn = currentPrimaryLsn();
+        for (Replica replica : routingDataSource.getReplicas()) {
+            check(replica, primaryLsn);
+        }
+    }
+
+    private void check(final Replica replica, final String primaryLsn) {
+        boolean wasHealthy = replica.isHealthy();
+        try {
+            Double lag = new JdbcTemplate(replica.getDataSource())
+                    .queryForObject(REPLICA_LAG, Double.class, primaryLsn, primaryLsn);
+            boolean healthy = lag != null && lag <= maxLagSeconds;
+            replica.update(healthy, lag == null ? Double.POSITIVE_INFINITY : lag);
+            if (wasHealthy && !healthy) {
+                log.warn("Replica {} ejected: lag {} s exceeds {} s", replica.getName(), lag, maxLagSeconds);
+            }
+        } catch (DataAccessException e) {
+            replica.update(false, Double.POSITIVE_INFINITY);
+            if (wasHealthy) {
+                log.warn("Replica {} ejected: health check failed", replica.getName(), e);
+            }
+        }
+        if (!wasHealthy && replica.isHealthy()) {
+            log.info("Replica {} is back in rotation", replica.getName());
+        }
+    }
+
+    /* null - позиция основной базы неизвестна, отставание оценивается только по времени. */
+    private String currentPrimaryLsn() {
+        try {
+            return primary.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+        } catch (DataAccessException e) {
+            log.warn("Primary WAL position is unavailable for replica lag check", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.task.product.catalog.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик (catalog.datasource.replicas.urls, через запятую).
+ * <p>
+ * Основной пул настраивается как обычно (spring.datasource.*), пулы реплик повторяют его настройки
+ * с другим адресом и доступом только для чтения. Без списка реплик конфигурация не подключается
+ * и источник данных создает Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "catalog.datasource.replicas.urls")
+@Slf4j
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            final HikariDataSource primaryDataSource,
+            final MeterRegistry meterRegistry,
+            @Value("${catalog.datasource.replicas.urls}") final String[] urls,
+            @Value("${catalog.datasource.replicas.balancing:round-robin}") final String balancing
+    ) {
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            String name = "replica-" + (i + 1);
+            replicas.add(new Replica(name, replicaPool(primaryDataSource, name, urls[i].trim(), meterRegistry)));
+        }
+        log.info("Read-only transactions are routed to {} replicas ({})", replicas.size(), balancing);
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, ReplicaBalancing.of(balancing));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(final ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    @Lazy(false)
+    public ReplicaHealthChecker replicaHealthChecker(
+            final HikariDataSource primaryDataSource,
+            final ReplicaRoutingDataSource replicaRoutingDataSource,
+            final MeterRegistry meterRegistry,
+            @Value("${catalog.datasource.replicas.max-lag:5s}") final Duration maxLag
+    ) {
+        return new ReplicaHealthChecker(primaryDataSource, replicaRoutingDataSource, maxLag, meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${catalog.datasource.replicas.read-your-writes-window:10s}") final Duration window
+    ) {
+        return new ReadYourWritesFilter(window);
+    }
+
+    private static HikariDataSource replicaPool(
+            final HikariDataSource primary,
+            final String name,
+            final String url,
+            final MeterRegistry meterRegistry
+    ) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(primary.getPoolName() + "-" + name);
+        config.setJdbcUrl(url);
+        config.setUsername(primary.getUsername());
+        config.setPassword(primary.getPassword());
+        config.setDriverClassName(primary.getDriverClassName());
+        config.setMaximumPoolSize(primary.getMaximumPoolSize());
+        config.setMinimumIdle(primary.getMinimumIdle());
+        config.setConnectionTimeout(primary.getConnectionTimeout());
+        config.setIdleTimeout(primary.getIdleTimeout());
+        config.setMaxLifetime(primary.getMaxLifetime());
+        config.setAutoCommit(primary.isAutoCommit());
+        config.setDataSourceProperties(primary.getDataSourceProperties());
+        config.setReadOnly(true);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,24 @@
+package com.task.product.catalog.datasource;
+
+/**
+ * Закрепление транзакций текущего потока за основной базой (read-your-writes).
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    public static void clear() {
+        PINNED_TO_PRIMARY.remove();
+    }
+}
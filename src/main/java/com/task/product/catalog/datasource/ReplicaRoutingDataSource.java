@@ -0,0 +1,72 @@
+package com.task.product.catalog.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Направляет транзакции только для чтения на реплики, все остальное - на основную базу.
+ * <p>
+ * Признак readOnly появляется у транзакции после того, как менеджер транзакций уже запросил соединение,
+ * поэтому источник используется только через LazyConnectionDataSourceProxy: настоящее соединение
+ * выбирается при первом запросе к базе.
+ * <p>
+ * На основную базу идут также транзакции потока, закрепленного за ней ({@link ReplicaRoutingContext}),
+ * и все транзакции, когда здоровых реплик нет.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+
+    private final ReplicaBalancing balancing;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(
+            final DataSource primary,
+            final List<Replica> replicas,
+            final ReplicaBalancing balancing
+    ) {
+        this.replicas = replicas;
+        this.balancing = balancing;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReplicaRoutingContext.isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        List<Replica> healthy = replicas.stream().filter(Replica::isHealthy).collect(Collectors.toList());
+        return healthy.isEmpty() ? PRIMARY : balancing.choose(healthy, counter).getName();
+    }
+
+    /* Пулы реплик создаются вместе с этим источником и закрываются вместе с ним. */
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.getDataSource().close();
+        }
+    }
+}
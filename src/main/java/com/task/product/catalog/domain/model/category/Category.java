@@ -1,6 +1,9 @@
 package com.task.product.catalog.domain.model.category;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
 
 import javax.persistence.*;
 import java.util.HashSet;
@@ -9,12 +12,14 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "category")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode(of = "id")
-public class Category {
+public class Category implements Persistable<UUID> {
 
     @Id
     private UUID id;
@@ -26,6 +31,13 @@ public class Category {
     @Column(name = "parent_id")
     private UUID parentId;
 
+    /* Счетчики поддерживают запросы CategoryJdbcRepository, Hibernate их только читает. */
+    @Column(name = "child_count", insertable = false, updatable = false)
+    private Integer childCount;
+
+    @Column(name = "descendant_count", insertable = false, updatable = false)
+    private Integer descendantCount;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "category_closure",
             joinColumns = @JoinColumn(name = "ancestor_id"),
@@ -40,11 +52,37 @@ public class Category {
     )
     private Set<Category> ancestors = new HashSet<>();
 
+    /*
+     * id назначается приложением, поэтому без этого флага save() считал бы новую категорию существующей
+     * и выполнял merge: SELECT по id перед каждым INSERT.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
     public Category(final String name, final String description, final UUID parentId) {
-        this.id = UUID.randomUUID();
+        this(UUID.randomUUID(), name, description, parentId);
+    }
+
+    public Category(final UUID id, final String name, final String description, final UUID parentId) {
+        this.id = id;
         this.name = name;
         this.description = description;
         this.parentId = parentId;
+        this.childCount = 0;
+        this.descendantCount = 0;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
     }
 
 }
@@ -0,0 +1,22 @@
+package com.task.product.catalog.domain.model.category;
+
+/**
+ * Тип изменения дерева категорий в ленте изменений.
+ */
+public enum CategoryChangeType {
+
+    CREATED,
+
+    UPDATED,
+
+    MOVED,
+
+    DELETED,
+
+    /* Пакет категорий, записанных импортом. */
+    IMPORTED,
+
+    /* Исправление счетчиков детей и потомков. */
+    COUNTS_REPAIRED
+
+}
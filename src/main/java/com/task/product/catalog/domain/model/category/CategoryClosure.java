@@ -0,0 +1,45 @@
+package com.task.product.catalog.domain.model.category;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Связь "предок - потомок" из таблицы 'category_closure'.
+ * Каждая категория связана сама с собой с глубиной 0.
+ */
+@Entity
+@Table(name = "category_closure")
+@IdClass(CategoryClosure.Key.class)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"ancestorId", "descendantId"})
+public class CategoryClosure {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private UUID ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private UUID descendantId;
+
+    private Integer depth;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private UUID ancestorId;
+
+        private UUID descendantId;
+
+    }
+}
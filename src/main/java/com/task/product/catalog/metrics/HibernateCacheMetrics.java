@@ -0,0 +1,48 @@
+package com.task.product.catalog.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+/**
+ * Публикует метрики регионов кэша второго уровня Hibernate (cache.gets, cache.puts, cache.evictions, тег cache).
+ * <p>
+ * Попадания и промахи по регионам публикует и статистика Hibernate (hibernate.second.level.cache.requests),
+ * а вытеснения по размеру видны только на уровне JCache. Регионы создаются при старте фабрики сессий,
+ * поэтому привязка выполняется после старта приложения.
+ */
+@Component
+public class HibernateCacheMetrics {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final MeterRegistry meterRegistry;
+
+    public HibernateCacheMetrics(final EntityManagerFactory entityManagerFactory, final MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindCacheMetrics() {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache()
+                .getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory)) {
+            return;
+        }
+        CacheManager cacheManager = ((JCacheRegionFactory) regionFactory).getCacheManager();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(meterRegistry, cacheManager.getCache(cacheName), Collections.emptyList());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.task.product.catalog.metrics;
+
+import com.task.product.catalog.representation.category.CategoryColumns;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+
+/**
+ * Таймеры на каждый метод сервисов и репозиториев.
+ * <p>
+ * catalog.service - время выполнения методов сервисов (теги service, method, exception);
+ * catalog.service.rows - количество возвращенных элементов для методов, возвращающих коллекцию, страницу
+ * или категории в столбцах;
+ * catalog.repository - время выполнения запросов репозиториев (теги repository, method, exception).
+ * <p>
+ * Перцентили и гистограммы настраиваются в 'management.metrics.distribution' по префиксу 'catalog'.
+ */
+@Aspect
+@Component
+public class LayerMetricsAspect {
+
+    private static final String REPOSITORY_PACKAGE = "com.task.product.catalog.repository.";
+
+    private final MeterRegistry meterRegistry;
+
+    public LayerMetricsAspect(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.task.product.catalog.service..*ServiceImpl.*(..))")
+    public Object timeService(final ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            recordRows(service, method, result);
+            return result;
+        } catch (Throwable throwable) {
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            sample.stop(Timer.builder("catalog.service")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Around("this(org.springframework.data.repository.Repository) || within(com.task.product.catalog.repository..*)")
+    public Object timeRepository(final ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryName(joinPoint);
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            sample.stop(Timer.builder("catalog.repository")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void recordRows(final String service, final String method, final Object result) {
+        int rows;
+        if (result instanceof Collection) {
+            rows = ((Collection<?>) result).size();
+        } else if (result instanceof Slice) {
+            rows = ((Slice<?>) result).getNumberOfElements();
+        } else if (result instanceof CategoryColumns) {
+            rows = ((CategoryColumns) result).size();
+        } else {
+            return;
+        }
+        DistributionSummary.builder("catalog.service.rows")
+                .baseUnit("rows")
+                .tag("service", service)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    /* У Spring Data репозиториев target - общая реализация, поэтому имя берется из интерфейса прокси. */
+    private static String repositoryName(final ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : ClassUtils.getAllInterfaces(joinPoint.getThis())) {
+            if (type.getName().startsWith(REPOSITORY_PACKAGE)) {
+                return type.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+    }
+}
@@ -0,0 +1,74 @@
+package com.task.product.catalog.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Считает SQL-запросы, выполненные в текущем потоке через основной источник данных:
+ * и запросы Hibernate, и запросы JdbcTemplate. Пакет (executeBatch) считается одним запросом.
+ * Источник данных оборачивает {@link QueryCountingDataSourcePostProcessor},
+ * счетчик сбрасывает {@link QueryCountFilter}.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<int[]> COUNTER = ThreadLocal.withInitial(() -> new int[1]);
+
+    public QueryCountingDataSource(final DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    static void reset() {
+        COUNTER.get()[0] = 0;
+    }
+
+    static int count() {
+        return COUNTER.get()[0];
+    }
+
+    private static Connection countingConnection(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement) {
+                        return countingStatement((Statement) result, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    /* Возвращается интерфейс из сигнатуры метода соединения: Statement, PreparedStatement или CallableStatement. */
+    private static Object countingStatement(final Statement statement, final Class<?> statementType) {
+        return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{statementType}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        COUNTER.get()[0]++;
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.task.product.catalog.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает основной источник данных (бин dataSource) в {@link QueryCountingDataSource}.
+ * <p>
+ * Бин с этим именем создает Spring Boot, а при чтении с реплик - ReplicaRoutingConfig, поэтому
+ * считаются запросы к любому пулу. Пулы реплик и основной пул под маршрутизатором не оборачиваются,
+ * чтобы запрос не учитывался дважды.
+ */
+@Component
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource) {
+            return new QueryCountingDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+}
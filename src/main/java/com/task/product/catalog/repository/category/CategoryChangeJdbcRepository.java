@@ -0,0 +1,136 @@
+package com.task.product.catalog.repository.category;
+
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import com.task.product.catalog.representation.category.CategoryChangeDto;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outbox изменений дерева категорий ('category_change').
+ * <p>
+ * Изменение записывается в транзакции операции записи, позиция в ленте назначается позже публикатором.
+ * Потребители ленты видят только опубликованные изменения.
+ */
+@Repository
+public class CategoryChangeJdbcRepository {
+
+    /* Ключ транзакционной advisory-блокировки публикатора ("catchang" в ASCII). */
+    private static final long PUBLISHER_LOCK_KEY = 0x6361746368616e67L;
+
+    private static final RowMapper<CategoryChangeDto> CHANGE_ROW_MAPPER = (rs, rowNum) -> new CategoryChangeDto(
+            rs.getLong("position"),
+            CategoryChangeType.valueOf(rs.getString("type")),
+            (UUID) rs.getObject("category_id"),
+            Arrays.asList((UUID[]) rs.getArray("affected_ids").getArray()),
+            rs.getTimestamp("created_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryChangeJdbcRepository(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(final CategoryChangeType type, final UUID categoryId, final Collection<UUID> affectedIds) {
+        jdbcTemplate.update(
+                "INSERT INTO category_change (type, category_id, affected_ids) VALUES (?, ?, ?)",
+                ps -> {
+                    ps.setString(1, type.name());
+                    ps.setObject(2, categoryId, Types.OTHER);
+                    ps.setArray(3, ps.getConnection().createArrayOf("uuid", affectedIds.toArray()));
+                });
+    }
+
+    /**
+     * Пытается взять блокировку публикатора до конца транзакции.
+     * Публикации с разных экземпляров сервиса не пересекаются, поэтому позиции коммитятся в порядке возрастания.
+     *
+     * @return false, если публикует другой экземпляр
+     */
+    public boolean tryLockPublisher() {
+        return jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, PUBLISHER_LOCK_KEY);
+    }
+
+    /**
+     * Назначает позиции не больше чем limit самым старым неопубликованным изменениям.
+     * Вызывать под блокировкой публикатора.
+     *
+     * @return опубликованные изменения в порядке позиций
+     */
+    public List<CategoryChangeDto> publishPending(final int limit) {
+        List<Long> ids = jdbcTemplate.query(
+                "SELECT id FROM category_change WHERE position IS NULL ORDER BY id LIMIT ?",
+                ps -> ps.setInt(1, limit),
+                (rs, rowNum) -> rs.getLong("id")
+        );
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        /* Запросы пакета выполняются по порядку, поэтому nextval раздает позиции в порядке id. */
+        jdbcTemplate.batchUpdate("" +
+                        "UPDATE category_change " +
+                        "SET    position = nextval('category_change_position_seq'), " +
+                        "       published_at = now() " +
+                        "WHERE  id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+                        ps.setLong(1, ids.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return ids.size();
+                    }
+                });
+        return jdbcTemplate.query("" +
+                        "SELECT * FROM category_change WHERE id = ANY(?) ORDER BY position",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                CHANGE_ROW_MAPPER
+        );
+    }
+
+    /**
+     * Возвращает не больше limit опубликованных изменений с позицией больше since.
+     */
+    public List<CategoryChangeDto> findPublished(final long since, final int limit) {
+        return jdbcTemplate.query("" +
+                        "SELECT * " +
+                        "FROM   category_change " +
+                        "WHERE  position > ? " +
+                        "ORDER  BY position " +
+                        "LIMIT  ?",
+                ps -> {
+                    ps.setLong(1, since);
+                    ps.setInt(2, limit);
+                },
+                CHANGE_ROW_MAPPER
+        );
+    }
+
+    /**
+     * Удаляет изменения, опубликованные раньше указанного момента.
+     *
+     * @return количество удаленных строк
+     */
+    public int deletePublishedBefore(final Instant publishedBefore) {
+        return jdbcTemplate.update(
+                "DELETE FROM category_change WHERE published_at < ?",
+                ps -> ps.setTimestamp(1, Timestamp.from(publishedBefore))
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package com.task.product.catalog.repository.category;
+
+import com.task.product.catalog.domain.model.category.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    boolean existsByAncestorIdAndDescendantId(UUID ancestorId, UUID descendantId);
+
+}
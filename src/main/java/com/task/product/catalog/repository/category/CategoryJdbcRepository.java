@@ -0,0 +1,567 @@
+package com.task.product.catalog.repository.category;
+
+import com.task.product.catalog.domain.model.category.Category;
+import com.task.product.catalog.domain.model.category.CategoryClosure;
+import com.task.product.catalog.representation.category.CategoryColumns;
+import com.task.product.catalog.representation.category.CategoryDto;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Массовые операции над категориями на чистом JDBC.
+ * <p>
+ * Используется там, где накладные расходы Hibernate на каждую сущность заметны:
+ * пакетные вставки и выборки по списку id одним запросом ('= ANY(?)').
+ * Hibernate об этих изменениях не знает, поэтому вызывающий код не должен держать
+ * затронутые сущности в persistence context.
+ * <p>
+ * Связи 'category_closure' тоже пишутся здесь: нативный запрос через Hibernate без указания
+ * затронутых таблиц сбрасывает весь кэш второго уровня и кэш запросов при каждом создании категории.
+ * Сущностей 'category_closure' в кэше нет, поэтому их изменения инвалидации не требуют.
+ */
+@Repository
+public class CategoryJdbcRepository {
+
+    /* Строк за одно обращение к серверу при полном чтении 'category': курсор вместо всей выборки в памяти драйвера. */
+    private static final int FETCH_SIZE = 1000;
+
+    /* Ключ транзакционной advisory-блокировки структуры дерева ("category" в ASCII). */
+    private static final long TREE_STRUCTURE_LOCK_KEY = 0x63617465676f7279L;
+
+    private static final RowMapper<CategoryClosure> CLOSURE_ROW_MAPPER = (rs, rowNum) -> new CategoryClosure(
+            (UUID) rs.getObject("ancestor_id"),
+            (UUID) rs.getObject("descendant_id"),
+            rs.getInt("depth")
+    );
+
+    private static final RowMapper<CategoryDto> CATEGORY_ROW_MAPPER = (rs, rowNum) -> new CategoryDto(
+            (UUID) rs.getObject("id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            (UUID) rs.getObject("parent_id"),
+            rs.getInt("child_count"),
+            rs.getInt("descendant_count")
+    );
+
+    /* Выражения должны совпадать с индексами из V2_3__add_category_search_indexes.sql. */
+    private static final String NAME_SEARCH_VECTOR = "to_tsvector('simple', coalesce(c.name, ''))";
+
+    private static final String TEXT_SEARCH_VECTOR =
+            "to_tsvector('simple', coalesce(c.name, '') || ' ' || coalesce(c.description, ''))";
+
+    /* Категории, счетчики которых расходятся с вычисленными заново по 'category_closure'. */
+    private static final String COUNT_DRIFT = "" +
+            "SELECT c.id, " +
+            "       coalesce(actual.children, 0) AS children, " +
+            "       coalesce(actual.descendants, 0) AS descendants " +
+            "FROM   category c " +
+            "       LEFT JOIN (SELECT ancestor_id, " +
+            "                         count(*) FILTER (WHERE depth = 1) AS children, " +
+            "                         count(*) FILTER (WHERE depth > 0) AS descendants " +
+            "                  FROM   category_closure " +
+            "                  GROUP  BY ancestor_id) actual " +
+            "              ON actual.ancestor_id = c.id " +
+            "WHERE  c.child_count <> coalesce(actual.children, 0) " +
+            "       OR c.descendant_count <> coalesce(actual.descendants, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryJdbcRepository(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Блокирует структуру дерева до конца текущей транзакции.
+     * <p>
+     * Перемещение и удаление поддерева берут блокировку эксклюзивно, а операции, которые читают связи предков
+     * для записи новых (создание, импорт), - в разделяемом режиме. Так проверка на цикл, пересчет
+     * 'category_closure' и выборка удаляемого поддерева не могут пересечься с другими изменениями структуры.
+     *
+     * @param exclusive true - эксклюзивная блокировка, false - разделяемая
+     */
+    public void lockTreeStructure(final boolean exclusive) {
+        jdbcTemplate.query(
+                exclusive ? "SELECT pg_advisory_xact_lock(?)" : "SELECT pg_advisory_xact_lock_shared(?)",
+                ps -> ps.setLong(1, TREE_STRUCTURE_LOCK_KEY),
+                rs -> null
+        );
+    }
+
+    public void insertCategories(final List<Category> categories) {
+        jdbcTemplate.batchUpdate("" +
+                        "INSERT INTO category " +
+                        "            (id," +
+                        "             name," +
+                        "             description," +
+                        "             parent_id) " +
+                        "VALUES (?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+                        Category category = categories.get(i);
+                        ps.setObject(1, category.getId(), Types.OTHER);
+                        ps.setString(2, category.getName());
+                        ps.setString(3, category.getDescription());
+                        ps.setObject(4, category.getParentId(), Types.OTHER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return categories.size();
+                    }
+                });
+    }
+
+    public void insertClosure(final List<CategoryClosure> closureRows) {
+        jdbcTemplate.batchUpdate("" +
+                        "INSERT INTO category_closure " +
+                        "            (ancestor_id," +
+                        "             descendant_id," +
+                        "             depth) " +
+                        "VALUES (?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+                        CategoryClosure closure = closureRows.get(i);
+                        ps.setObject(1, closure.getAncestorId(), Types.OTHER);
+                        ps.setObject(2, closure.getDescendantId(), Types.OTHER);
+                        ps.setInt(3, closure.getDepth());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return closureRows.size();
+                    }
+                });
+    }
+
+    /**
+     * Возвращает id тех категорий из списка, которые есть в базе.
+     */
+    public List<UUID> findExistingIds(final Collection<UUID> ids) {
+        return jdbcTemplate.query(
+                "SELECT id FROM category WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+                (rs, rowNum) -> (UUID) rs.getObject("id")
+        );
+    }
+
+    /**
+     * Возвращает категории из списка, которые есть в базе, в произвольном порядке.
+     */
+    public List<CategoryDto> findCategories(final Collection<UUID> ids) {
+        return jdbcTemplate.query("" +
+                        "SELECT id, " +
+                        "       name, " +
+                        "       description, " +
+                        "       parent_id, " +
+                        "       child_count, " +
+                        "       descendant_count " +
+                        "FROM   category " +
+                        "WHERE  id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+                CATEGORY_ROW_MAPPER
+        );
+    }
+
+    /**
+     * Читает все категории одним проходом по 'category' в столбцы {@link CategoryColumns}.
+     * Курсор работает только внутри транзакции, вне ее драйвер загружает всю выборку сразу.
+     */
+    public CategoryColumns findAllColumns() {
+        CategoryColumns.Builder columns = new CategoryColumns.Builder();
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement("" +
+                            "SELECT id, " +
+                            "       name, " +
+                            "       description, " +
+                            "       parent_id, " +
+                            "       child_count, " +
+                            "       descendant_count " +
+                            "FROM   category");
+                    ps.setFetchSize(FETCH_SIZE);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> columns.add(
+                        (UUID) rs.getObject("id"),
+                        (UUID) rs.getObject("parent_id"),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        rs.getInt("child_count"),
+                        rs.getInt("descendant_count")
+                )
+        );
+        return columns.build();
+    }
+
+    /**
+     * Возвращает пути от корня (breadcrumbs) для списка категорий одним запросом.
+     * Путь заканчивается самой категорией, поэтому категорий, которых нет в базе, в результате нет.
+     *
+     * @return id категории -> путь от корня до нее включительно
+     */
+    public Map<UUID, List<CategoryDto>> findAncestorPaths(final Collection<UUID> ids) {
+        Map<UUID, List<CategoryDto>> paths = new HashMap<>();
+        jdbcTemplate.query("" +
+                        "SELECT cc.descendant_id, " +
+                        "       c.id, " +
+                        "       c.name, " +
+                        "       c.description, " +
+                        "       c.parent_id, " +
+                        "       c.child_count, " +
+                        "       c.descendant_count " +
+                        "FROM   category_closure cc " +
+                        "       JOIN category c " +
+                        "         ON c.id = cc.ancestor_id " +
+                        "WHERE  cc.descendant_id = ANY(?) " +
+                        "ORDER  BY cc.descendant_id, " +
+                        "          cc.depth DESC",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+                rs -> {
+                    paths.computeIfAbsent((UUID) rs.getObject("descendant_id"), it -> new ArrayList<>())
+                            .add(CATEGORY_ROW_MAPPER.mapRow(rs, rs.getRow()));
+                }
+        );
+        return paths;
+    }
+
+    /**
+     * Возвращает все связи с предками (включая связь с собой) для списка категорий.
+     */
+    public List<CategoryClosure> findAncestorLinks(final Collection<UUID> descendantIds) {
+        return jdbcTemplate.query("" +
+                        "SELECT ancestor_id, " +
+                        "       descendant_id, " +
+                        "       depth " +
+                        "FROM   category_closure " +
+                        "WHERE  descendant_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", descendantIds.toArray())),
+                CLOSURE_ROW_MAPPER
+        );
+    }
+
+    /**
+     * Сохраняет связи новой категории: с собой и со всеми предками родителя.
+     * Строка категории к этому моменту уже должна быть записана в базу (внешние ключи).
+     *
+     * @param parentId id родителя или null для корневой категории
+     */
+    public void insertAncestorLinks(final UUID categoryId, final UUID parentId) {
+        jdbcTemplate.update("" +
+                        "INSERT INTO category_closure " +
+                        "            (ancestor_id," +
+                        "             descendant_id," +
+                        "             depth) " +
+                        "SELECT ancestor_id, " +
+                        "       ?, " +
+                        "       depth + 1 " +
+                        "FROM   category_closure " +
+                        "WHERE  descendant_id = ? " +
+                        "UNION ALL " +
+                        "SELECT ?, " +
+                        "       ?, " +
+                        "       0",
+                ps -> {
+                    ps.setObject(1, categoryId, Types.OTHER);
+                    ps.setObject(2, parentId, Types.OTHER);
+                    ps.setObject(3, categoryId, Types.OTHER);
+                    ps.setObject(4, categoryId, Types.OTHER);
+                });
+    }
+
+    /**
+     * Удаляет связи поддерева с его внешними предками. Связи внутри поддерева не меняются.
+     */
+    public int deleteExternalAncestorLinks(final UUID categoryId) {
+        return jdbcTemplate.update("" +
+                        "DELETE FROM category_closure " +
+                        "WHERE  descendant_id IN (SELECT descendant_id " +
+                        "                         FROM   category_closure " +
+                        "                         WHERE  ancestor_id = ?) " +
+                        "       AND ancestor_id NOT IN (SELECT descendant_id " +
+                        "                               FROM   category_closure " +
+                        "                               WHERE  ancestor_id = ?)",
+                ps -> {
+                    ps.setObject(1, categoryId, Types.OTHER);
+                    ps.setObject(2, categoryId, Types.OTHER);
+                });
+    }
+
+    /**
+     * Связывает каждый узел поддерева с каждым предком нового родителя (включая самого родителя).
+     */
+    public int insertExternalAncestorLinks(final UUID categoryId, final UUID parentId) {
+        return jdbcTemplate.update("" +
+                        "INSERT INTO category_closure " +
+                        "            (ancestor_id," +
+                        "             descendant_id," +
+                        "             depth) " +
+                        "SELECT supertree.ancestor_id, " +
+                        "       subtree.descendant_id, " +
+                        "       supertree.depth + subtree.depth + 1 " +
+                        "FROM   category_closure supertree " +
+                        "       CROSS JOIN category_closure subtree " +
+                        "WHERE  supertree.descendant_id = ? " +
+                        "       AND subtree.ancestor_id = ?",
+                ps -> {
+                    ps.setObject(1, parentId, Types.OTHER);
+                    ps.setObject(2, categoryId, Types.OTHER);
+                });
+    }
+
+    /**
+     * Возвращает id всех категорий поддерева, включая саму категорию.
+     */
+    public List<UUID> findSubtreeIds(final UUID categoryId) {
+        return jdbcTemplate.query(
+                "SELECT descendant_id FROM category_closure WHERE ancestor_id = ?",
+                ps -> ps.setObject(1, categoryId, Types.OTHER),
+                (rs, rowNum) -> (UUID) rs.getObject("descendant_id")
+        );
+    }
+
+    /**
+     * Возвращает не больше limit самых глубоких категорий поддерева.
+     * Если в результат попала категория, то в него попали и все ее потомки.
+     */
+    public List<UUID> findDeepestSubtreeIds(final UUID categoryId, final int limit) {
+        return jdbcTemplate.query("" +
+                        "SELECT descendant_id " +
+                        "FROM   category_closure " +
+                        "WHERE  ancestor_id = ? " +
+                        "ORDER  BY depth DESC " +
+                        "LIMIT  ?",
+                ps -> {
+                    ps.setObject(1, categoryId, Types.OTHER);
+                    ps.setInt(2, limit);
+                },
+                (rs, rowNum) -> (UUID) rs.getObject("descendant_id")
+        );
+    }
+
+    /**
+     * Удаляет все связи, в которых категории из списка - потомки.
+     * Для замкнутого вниз множества категорий (поддерева) это все их связи.
+     *
+     * @return количество удаленных строк
+     */
+    public int deleteClosureRows(final Collection<UUID> descendantIds) {
+        return jdbcTemplate.update(
+                "DELETE FROM category_closure WHERE descendant_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", descendantIds.toArray()))
+        );
+    }
+
+    /**
+     * Удаляет категории из списка одним запросом.
+     *
+     * @return количество удаленных строк
+     */
+    public int deleteCategories(final Collection<UUID> ids) {
+        return jdbcTemplate.update(
+                "DELETE FROM category WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray()))
+        );
+    }
+
+    /**
+     * Ищет категории по словам названия или по названию и описанию.
+     * <p>
+     * Префиксный поиск (подсказки при вводе) проверяет только названия, каждое слово запроса - префикс слова названия.
+     * Результаты упорядочены по названию. Полнотекстовый поиск проверяет название и описание,
+     * результаты упорядочены по релевантности.
+     * <p>
+     * Редкие слова находит GIN-индекс. Частому короткому префиксу соответствуют сотни тысяч категорий,
+     * поэтому для него планировщик идет по индексу category_name_id_idx в порядке названия и останавливается
+     * на limit совпадениях. Страница сначала выбирается по id только из индекса, остальные столбцы
+     * читаются из таблицы для нее одной. Должен вызываться в транзакции.
+     *
+     * @param words            слова запроса, только буквы и цифры
+     * @param prefix           true - префиксный поиск по названию, false - полнотекстовый
+     * @param withinCategoryId корень поддерева, в котором ищутся категории, null - поиск по всему дереву
+     * @param offset           количество пропускаемых результатов
+     * @param limit            максимальное количество результатов
+     */
+    public List<CategoryDto> searchCategories(
+            final List<String> words,
+            final boolean prefix,
+            final UUID withinCategoryId,
+            final long offset,
+            final int limit
+    ) {
+        String vector = prefix ? NAME_SEARCH_VECTOR : TEXT_SEARCH_VECTOR;
+        String query = prefix
+                ? "to_tsquery('simple', ?)"
+                : "plainto_tsquery('simple', ?)";
+        String queryText = prefix
+                ? words.stream().map(word -> word + ":*").collect(Collectors.joining(" & "))
+                : String.join(" ", words);
+        String sql = "" +
+                "SELECT r.id, " +
+                "       r.name, " +
+                "       r.description, " +
+                "       r.parent_id, " +
+                "       r.child_count, " +
+                "       r.descendant_count " +
+                "FROM   (SELECT c.id, " +
+                "               c.name" + (prefix ? " " : ", ts_rank(" + vector + ", " + query + ") AS rank ") +
+                "        FROM   category c " +
+                (withinCategoryId == null ? "" : "" +
+                "               JOIN category_closure cc " +
+                "                 ON cc.descendant_id = c.id " +
+                "                    AND cc.ancestor_id = ? ") +
+                "        WHERE  " + vector + " @@ " + query + " " +
+                "        ORDER  BY " + (prefix ? "" : "rank DESC, ") + "c.name, c.id " +
+                "        LIMIT  ? " +
+                "        OFFSET ?) page " +
+                "       JOIN category r " +
+                "         ON r.id = page.id " +
+                "ORDER  BY " + (prefix ? "" : "page.rank DESC, ") + "page.name, " +
+                "          page.id";
+        /*
+         * Параллельный план для страницы из десятков строк только мешает: запуск воркеров дольше самого поиска,
+         * а на частых префиксах планировщик выбирает его для прохода по индексу названий.
+         */
+        jdbcTemplate.execute("SET LOCAL max_parallel_workers_per_gather = 0");
+        return jdbcTemplate.query(sql,
+                ps -> {
+                    int index = 1;
+                    if (!prefix) {
+                        ps.setString(index++, queryText);
+                    }
+                    if (withinCategoryId != null) {
+                        ps.setObject(index++, withinCategoryId, Types.OTHER);
+                    }
+                    ps.setString(index++, queryText);
+                    ps.setInt(index++, limit);
+                    ps.setLong(index, offset);
+                },
+                CATEGORY_ROW_MAPPER
+        );
+    }
+
+    /**
+     * Прибавляет поддерево категории к счетчикам всех ее предков (sign = 1) или вычитает его (sign = -1):
+     * у предков меняется количество потомков на размер поддерева, у родителя - еще и количество детей.
+     * Размер поддерева берется из счетчика самой категории, который при этом не меняется.
+     *
+     * @return id измененных категорий
+     */
+    public List<UUID> updateAncestorCounts(final UUID categoryId, final int sign) {
+        return jdbcTemplate.query("" +
+                        "UPDATE category c " +
+                        "SET    descendant_count = c.descendant_count + ? * (SELECT s.descendant_count + 1 " +
+                        "                                                    FROM   category s " +
+                        "                                                    WHERE  s.id = ?), " +
+                        "       child_count = c.child_count + CASE WHEN cc.depth = 1 THEN ? ELSE 0 END " +
+                        "FROM   category_closure cc " +
+                        "WHERE  cc.descendant_id = ? " +
+                        "       AND cc.depth > 0 " +
+                        "       AND c.id = cc.ancestor_id " +
+                        "RETURNING c.id",
+                ps -> {
+                    ps.setInt(1, sign);
+                    ps.setObject(2, categoryId, Types.OTHER);
+                    ps.setInt(3, sign);
+                    ps.setObject(4, categoryId, Types.OTHER);
+                },
+                (rs, rowNum) -> (UUID) rs.getObject("id")
+        );
+    }
+
+    /**
+     * Уменьшает счетчики предков, которые остаются в дереве после удаления категорий из списка.
+     * Вызывается до удаления связей 'category_closure' удаляемых категорий.
+     *
+     * @return id измененных категорий
+     */
+    public List<UUID> decrementCountsForRemoval(final Collection<UUID> removedIds) {
+        return jdbcTemplate.query("" +
+                        "UPDATE category c " +
+                        "SET    descendant_count = c.descendant_count - removed.descendants, " +
+                        "       child_count = c.child_count - removed.children " +
+                        "FROM   (SELECT ancestor_id, " +
+                        "               count(*) FILTER (WHERE depth = 1) AS children, " +
+                        "               count(*) AS descendants " +
+                        "        FROM   category_closure " +
+                        "        WHERE  descendant_id = ANY(?) " +
+                        "               AND depth > 0 " +
+                        "               AND NOT ancestor_id = ANY(?) " +
+                        "        GROUP  BY ancestor_id) removed " +
+                        "WHERE  c.id = removed.ancestor_id " +
+                        "RETURNING c.id",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", removedIds.toArray()));
+                    ps.setArray(2, ps.getConnection().createArrayOf("uuid", removedIds.toArray()));
+                },
+                (rs, rowNum) -> (UUID) rs.getObject("id")
+        );
+    }
+
+    /**
+     * Прибавляет к счетчикам категорий пакетом: id -> {прибавка к детям, прибавка к потомкам}.
+     */
+    public void addCounts(final Map<UUID, int[]> deltas) {
+        List<Map.Entry<UUID, int[]>> entries = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate("" +
+                        "UPDATE category " +
+                        "SET    child_count = child_count + ?, " +
+                        "       descendant_count = descendant_count + ? " +
+                        "WHERE  id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+                        Map.Entry<UUID, int[]> entry = entries.get(i);
+                        ps.setInt(1, entry.getValue()[0]);
+                        ps.setInt(2, entry.getValue()[1]);
+                        ps.setObject(3, entry.getKey(), Types.OTHER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                });
+    }
+
+    /**
+     * Возвращает id категорий, счетчики которых расходятся с 'category_closure'.
+     * Один запрос видит согласованный снимок базы, поэтому параллельные записи ложных расхождений не дают.
+     */
+    public List<UUID> findCountDrift() {
+        return jdbcTemplate.query(COUNT_DRIFT, (rs, rowNum) -> (UUID) rs.getObject("id"));
+    }
+
+    /**
+     * Переписывает разошедшиеся счетчики значениями, вычисленными по 'category_closure'.
+     * Вызывать под эксклюзивной блокировкой структуры дерева, иначе параллельные изменения счетчиков потеряются.
+     *
+     * @return id исправленных категорий
+     */
+    public List<UUID> repairCountDrift() {
+        return jdbcTemplate.query("" +
+                        "UPDATE category c " +
+                        "SET    child_count = drift.children, " +
+                        "       descendant_count = drift.descendants " +
+                        "FROM   (" + COUNT_DRIFT + ") drift " +
+                        "WHERE  c.id = drift.id " +
+                        "RETURNING c.id",
+                (rs, rowNum) -> (UUID) rs.getObject("id")
+        );
+    }
+}
@@ -1,45 +1,99 @@
 package com.task.product.catalog.repository.category;
 
 import com.task.product.catalog.domain.model.category.Category;
+import com.task.product.catalog.representation.category.CategoryDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
 
+    /* Результаты кэшируются в кэше запросов Hibernate (только id, сами сущности - в кэше второго уровня). */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Page<Category> findByParentId(UUID parentId, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Category> findByParentIdIsNull();
 
-    @Modifying
-    @Query(value = "" +
-            "INSERT INTO category_closure " +
-            "            (ancestor_id," +
-            "             descendant_id) " +
-            "SELECT ancestor_id, " +
-            "       :descendantId " +
-            "FROM   category_closure " +
-            "WHERE  descendant_id = :parentId " +
-            "UNION ALL " +
-            "SELECT :descendantId, " +
-            "       :descendantId  ",
-            nativeQuery = true)
-    void saveDescendant(@Param("descendantId") UUID descendantId, @Param("parentId") UUID parentId);
-
-    @Modifying
-    @Query(value = "" +
-            "INSERT INTO category_closure " +
-            "            (ancestor_id," +
-            "             descendant_id) " +
-            "VALUES (:descendantId, " +
-            "        :descendantId)",
-            nativeQuery = true)
-    void saveDescendant(@Param("descendantId") UUID descendantId);
+    @Query("" +
+            "SELECT new com.task.product.catalog.representation.category.CategoryDto(" +
+            "           c.id, c.name, c.description, c.parentId, c.childCount, c.descendantCount) " +
+            "FROM   Category c " +
+            "ORDER  BY c.name, c.id")
+    List<CategoryDto> findAllDtoOrderByName();
+
+    /* Все категории потоком, без загрузки сущностей в persistence context. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("" +
+            "SELECT new com.task.product.catalog.representation.category.CategoryDto(" +
+            "           c.id, c.name, c.description, c.parentId, c.childCount, c.descendantCount) " +
+            "FROM   Category c")
+    Stream<CategoryDto> streamAll();
+
+    /* Постраничная выборка по ключу (keyset): страница начинается сразу после переданного id. */
+    @Query("" +
+            "SELECT new com.task.product.catalog.representation.category.CategoryDto(" +
+            "           c.id, c.name, c.description, c.parentId, c.childCount, c.descendantCount) " +
+            "FROM   Category c " +
+            "ORDER  BY c.id")
+    List<CategoryDto> findFirstPage(Pageable pageable);
+
+    @Query("" +
+            "SELECT new com.task.product.catalog.representation.category.CategoryDto(" +
+            "           c.id, c.name, c.description, c.parentId, c.childCount, c.descendantCount) " +
+            "FROM   Category c " +
+            "WHERE  c.id > :after " +
+            "ORDER  BY c.id")
+    List<CategoryDto> findPageAfter(@Param("after") UUID after, Pageable pageable);
+
+    /*
+     * Поддерево выбирается одним join'ом 'category_closure' с 'category' сразу в DTO, без загрузки сущностей.
+     * Порядок (name, id) задает порядок братьев в ответе: дерево собирается из списка без сортировки в памяти.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("" +
+            "SELECT new com.task.product.catalog.representation.category.CategoryDto(" +
+            "           c.id, c.name, c.description, c.parentId, c.childCount, c.descendantCount) " +
+            "FROM   CategoryClosure cc, " +
+            "       Category c " +
+            "WHERE  cc.ancestorId = :categoryId " +
+            "       AND cc.depth > 0 " +
+            "       AND c.id = cc.descendantId " +
+            "ORDER  BY c.name, c.id")
+    Stream<CategoryDto> streamDescendants(@Param("categoryId") UUID categoryId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("" +
+            "SELECT new com.task.product.catalog.representation.category.CategoryDto(" +
+            "           c.id, c.name, c.description, c.parentId, c.childCount, c.descendantCount) " +
+            "FROM   CategoryClosure cc, " +
+            "       Category c " +
+            "WHERE  cc.ancestorId = :categoryId " +
+            "       AND cc.depth BETWEEN 1 AND :maxDepth " +
+            "       AND c.id = cc.descendantId " +
+            "ORDER  BY c.name, c.id")
+    Stream<CategoryDto> streamDescendants(@Param("categoryId") UUID categoryId, @Param("maxDepth") int maxDepth);
+
+    /* Путь от корня до категории включительно, упорядоченный по убыванию глубины связи. */
+    @Query("" +
+            "SELECT new com.task.product.catalog.representation.category.CategoryDto(" +
+            "           c.id, c.name, c.description, c.parentId, c.childCount, c.descendantCount) " +
+            "FROM   CategoryClosure cc, " +
+            "       Category c " +
+            "WHERE  cc.descendantId = :categoryId " +
+            "       AND c.id = cc.ancestorId " +
+            "ORDER  BY cc.depth DESC")
+    List<CategoryDto> findAncestors(@Param("categoryId") UUID categoryId);
 
 }
@@ -0,0 +1,32 @@
+package com.task.product.catalog.repository.category;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Версия каталога категорий ('category_version'), общая для всех экземпляров сервиса.
+ * <p>
+ * Увеличение блокирует строку до конца транзакции, поэтому вызывать его нужно как можно ближе к коммиту:
+ * конкурентные операции записи ждут друг друга только на нем.
+ */
+@Repository
+public class CategoryVersionJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryVersionJdbcRepository(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return версия, которая станет видна после коммита текущей транзакции
+     */
+    public long increment() {
+        return jdbcTemplate.queryForObject(
+                "UPDATE category_version SET version = version + 1 RETURNING version", Long.class);
+    }
+
+    public long current() {
+        return jdbcTemplate.queryForObject("SELECT version FROM category_version", Long.class);
+    }
+}
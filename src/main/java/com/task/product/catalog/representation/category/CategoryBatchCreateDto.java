@@ -0,0 +1,21 @@
+package com.task.product.catalog.representation.category;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryBatchCreateDto {
+
+    @ApiModelProperty(required = true)
+    @NotEmpty(message = "Categories should be non-empty")
+    @Size(max = 1000, message = "No more than 1000 categories can be created at once")
+    private List<@Valid CategoryCreateDto> categories;
+}
@@ -0,0 +1,26 @@
+package com.task.product.catalog.representation.category;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CategoryBatchDto {
+
+    /* Найденные категории в порядке запроса. */
+    private List<CategoryDto> categories;
+
+    /* Запрошенные id, которых нет в базе. */
+    private List<UUID> missingIds;
+
+    /* id категории -> путь от корня до нее включительно; только если пути были запрошены. */
+    private Map<UUID, List<CategoryDto>> ancestors;
+
+}
@@ -0,0 +1,24 @@
+package com.task.product.catalog.representation.category;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryBatchGetDto {
+
+    @ApiModelProperty(required = true)
+    @NotEmpty(message = "Category ids should be non-empty")
+    @Size(max = 1000, message = "No more than 1000 category ids can be requested at once")
+    private List<UUID> ids;
+
+    /* true - вернуть для каждой категории путь от корня (breadcrumbs). */
+    private boolean includeAncestors;
+}
@@ -0,0 +1,29 @@
+package com.task.product.catalog.representation.category;
+
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryChangeDto {
+
+    /* Позиция в ленте изменений, растет в порядке публикации. */
+    private long position;
+
+    private CategoryChangeType type;
+
+    /* Категория, с которой выполнялась операция; null для массовых операций. */
+    private UUID categoryId;
+
+    /* Категории, которые потребителю нужно перечитать или удалить у себя (для перемещения - все поддерево). */
+    private List<UUID> affectedIds;
+
+    private Instant createdAt;
+
+}
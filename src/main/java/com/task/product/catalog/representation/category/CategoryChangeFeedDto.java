@@ -0,0 +1,18 @@
+package com.task.product.catalog.representation.category;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryChangeFeedDto {
+
+    private List<CategoryChangeDto> changes;
+
+    /* Значение since для следующего запроса. */
+    private long nextSince;
+
+}
@@ -0,0 +1,267 @@
+package com.task.product.catalog.representation.category;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * Все категории в столбцах примитивных массивов - представление для выгрузки всего каталога.
+ * <p>
+ * Вместо объекта CategoryDto с двумя UUID, двумя String и упакованными счетчиками на каждую категорию
+ * приходится около 36 байт в массивах плюс байты UTF-8 ее имени и описания:
+ * id - пара long, родитель - индекс строки, имена и описания - срезы одного общего массива байт.
+ * Количество объектов не зависит от количества категорий, поэтому выгрузка миллиона категорий
+ * почти не нагружает сборщик мусора.
+ * <p>
+ * Строится {@link Builder} за один проход по строкам 'category' в любом порядке, после построения не изменяется.
+ */
+public final class CategoryColumns {
+
+    /* Индекс родителя корневой категории. */
+    public static final int NO_PARENT = -1;
+
+    private final int size;
+
+    private final long[] idMostSignificantBits;
+
+    private final long[] idLeastSignificantBits;
+
+    private final int[] parents;
+
+    private final int[] childCounts;
+
+    private final int[] descendantCounts;
+
+    /* Имя строки i - байты [textOffsets[2i], textOffsets[2i + 1]), описание - [textOffsets[2i + 1], textOffsets[2i + 2]). */
+    private final int[] textOffsets;
+
+    private final byte[] text;
+
+    /* Бит 2i - имя строки i равно null, бит 2i + 1 - описание. */
+    private final BitSet nullText;
+
+    private CategoryColumns(final Builder builder, final int[] parents) {
+        this.size = builder.size;
+        this.idMostSignificantBits = builder.idMostSignificantBits;
+        this.idLeastSignificantBits = builder.idLeastSignificantBits;
+        this.parents = parents;
+        this.childCounts = builder.childCounts;
+        this.descendantCounts = builder.descendantCounts;
+        this.textOffsets = builder.textOffsets;
+        this.text = builder.text;
+        this.nullText = builder.nullText;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getIdMostSignificantBits(final int row) {
+        return idMostSignificantBits[row];
+    }
+
+    public long getIdLeastSignificantBits(final int row) {
+        return idLeastSignificantBits[row];
+    }
+
+    /**
+     * @return индекс строки родителя или {@link #NO_PARENT} для корневой категории
+     */
+    public int getParent(final int row) {
+        return parents[row];
+    }
+
+    public int getChildCount(final int row) {
+        return childCounts[row];
+    }
+
+    public int getDescendantCount(final int row) {
+        return descendantCounts[row];
+    }
+
+    /**
+     * Общий массив байт UTF-8 имен и описаний. Не изменяется и не должен изменяться вызывающим кодом.
+     */
+    public byte[] getText() {
+        return text;
+    }
+
+    public boolean isNameNull(final int row) {
+        return nullText.get(2 * row);
+    }
+
+    public int getNameOffset(final int row) {
+        return textOffsets[2 * row];
+    }
+
+    public int getNameLength(final int row) {
+        return textOffsets[2 * row + 1] - textOffsets[2 * row];
+    }
+
+    public boolean isDescriptionNull(final int row) {
+        return nullText.get(2 * row + 1);
+    }
+
+    public int getDescriptionOffset(final int row) {
+        return textOffsets[2 * row + 1];
+    }
+
+    public int getDescriptionLength(final int row) {
+        return textOffsets[2 * row + 2] - textOffsets[2 * row + 1];
+    }
+
+    /**
+     * Собирает столбцы по одной категории. Родители связываются с детьми в {@link #build()},
+     * поэтому категории можно добавлять в любом порядке.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int size;
+
+        private long[] idMostSignificantBits = new long[INITIAL_CAPACITY];
+
+        private long[] idLeastSignificantBits = new long[INITIAL_CAPACITY];
+
+        /* id родителей нужны только до связывания в build(). */
+        private long[] parentMostSignificantBits = new long[INITIAL_CAPACITY];
+
+        private long[] parentLeastSignificantBits = new long[INITIAL_CAPACITY];
+
+        private final BitSet roots = new BitSet();
+
+        private int[] childCounts = new int[INITIAL_CAPACITY];
+
+        private int[] descendantCounts = new int[INITIAL_CAPACITY];
+
+        private int[] textOffsets = new int[2 * INITIAL_CAPACITY + 1];
+
+        private byte[] text = new byte[16 * INITIAL_CAPACITY];
+
+        private int textLength;
+
+        private final BitSet nullText = new BitSet();
+
+        public Builder add(
+                final UUID id,
+                final UUID parentId,
+                final String name,
+                final String description,
+                final int childCount,
+                final int descendantCount
+        ) {
+            if (size == idMostSignificantBits.length) {
+                grow();
+            }
+            idMostSignificantBits[size] = id.getMostSignificantBits();
+            idLeastSignificantBits[size] = id.getLeastSignificantBits();
+            if (parentId == null) {
+                roots.set(size);
+            } else {
+                parentMostSignificantBits[size] = parentId.getMostSignificantBits();
+                parentLeastSignificantBits[size] = parentId.getLeastSignificantBits();
+            }
+            childCounts[size] = childCount;
+            descendantCounts[size] = descendantCount;
+            appendText(2 * size, name);
+            appendText(2 * size + 1, description);
+            size++;
+            return this;
+        }
+
+        /**
+         * Связывает родителей по индексам строк.
+         *
+         * @throws IllegalStateException если родителя какой-то категории нет среди добавленных
+         */
+        public CategoryColumns build() {
+            int[] table = indexTable();
+            int[] parents = new int[size];
+            for (int row = 0; row < size; row++) {
+                parents[row] = roots.get(row)
+                        ? NO_PARENT
+                        : find(table, parentMostSignificantBits[row], parentLeastSignificantBits[row]);
+                if (parents[row] == NO_PARENT && !roots.get(row)) {
+                    throw new IllegalStateException("Category tree is inconsistent: parent \""
+                            + new UUID(parentMostSignificantBits[row], parentLeastSignificantBits[row])
+                            + "\" not found.");
+                }
+            }
+            parentMostSignificantBits = null;
+            parentLeastSignificantBits = null;
+
+            idMostSignificantBits = Arrays.copyOf(idMostSignificantBits, size);
+            idLeastSignificantBits = Arrays.copyOf(idLeastSignificantBits, size);
+            childCounts = Arrays.copyOf(childCounts, size);
+            descendantCounts = Arrays.copyOf(descendantCounts, size);
+            textOffsets = Arrays.copyOf(textOffsets, 2 * size + 1);
+            text = Arrays.copyOf(text, textLength);
+            return new CategoryColumns(this, parents);
+        }
+
+        private void appendText(final int slot, final String value) {
+            if (value == null) {
+                nullText.set(slot);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (text.length - textLength < bytes.length) {
+                    long capacity = Math.max(2L * text.length, (long) textLength + bytes.length);
+                    if (capacity > Integer.MAX_VALUE - 8) {
+                        throw new IllegalStateException("Category names and descriptions exceed 2 GB.");
+                    }
+                    text = Arrays.copyOf(text, (int) capacity);
+                }
+                System.arraycopy(bytes, 0, text, textLength, bytes.length);
+                textLength += bytes.length;
+            }
+            textOffsets[slot + 1] = textLength;
+        }
+
+        private void grow() {
+            int capacity = idMostSignificantBits.length * 2;
+            idMostSignificantBits = Arrays.copyOf(idMostSignificantBits, capacity);
+            idLeastSignificantBits = Arrays.copyOf(idLeastSignificantBits, capacity);
+            parentMostSignificantBits = Arrays.copyOf(parentMostSignificantBits, capacity);
+            parentLeastSignificantBits = Arrays.copyOf(parentLeastSignificantBits, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+            descendantCounts = Arrays.copyOf(descendantCounts, capacity);
+            textOffsets = Arrays.copyOf(textOffsets, 2 * capacity + 1);
+        }
+
+        /* Открытая адресация по id: ячейка хранит индекс строки + 1, 0 - пустая ячейка. */
+        private int[] indexTable() {
+            int[] table = new int[Integer.highestOneBit(Math.max(1, size) * 2 - 1) * 2];
+            int mask = table.length - 1;
+            for (int row = 0; row < size; row++) {
+                int slot = hash(idMostSignificantBits[row], idLeastSignificantBits[row]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = row + 1;
+            }
+            return table;
+        }
+
+        private int find(final int[] table, final long mostSignificantBits, final long leastSignificantBits) {
+            int mask = table.length - 1;
+            int slot = hash(mostSignificantBits, leastSignificantBits) & mask;
+            while (table[slot] != 0) {
+                int row = table[slot] - 1;
+                if (idMostSignificantBits[row] == mostSignificantBits
+                        && idLeastSignificantBits[row] == leastSignificantBits) {
+                    return row;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NO_PARENT;
+        }
+
+        /* У UUID v7 старшие биты почти совпадают у соседних id, поэтому перемешиваются обе половины. */
+        private static int hash(final long mostSignificantBits, final long leastSignificantBits) {
+            long hash = (mostSignificantBits ^ leastSignificantBits) * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
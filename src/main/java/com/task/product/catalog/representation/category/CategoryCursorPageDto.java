@@ -0,0 +1,19 @@
+package com.task.product.catalog.representation.category;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryCursorPageDto {
+
+    private List<CategoryDto> content;
+
+    /* id последней категории страницы, null - страница последняя. */
+    private UUID nextCursor;
+
+}
@@ -0,0 +1,19 @@
+package com.task.product.catalog.representation.category;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryDeleteResultDto {
+
+    private long categories;
+
+    private long closureRows;
+
+    private long chunks;
+
+    private long elapsedMillis;
+
+}
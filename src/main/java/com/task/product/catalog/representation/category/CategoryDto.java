@@ -1,5 +1,6 @@
 package com.task.product.catalog.representation.category;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.util.UUID;
@@ -18,4 +19,16 @@ public class CategoryDto {
 
     private UUID parentId;
 
+    /* Количество прямых детей, null - не запрашивалось. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer childCount;
+
+    /* Количество всех потомков, null - не запрашивалось. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer descendantCount;
+
+    public CategoryDto(final UUID id, final String name, final String description, final UUID parentId) {
+        this(id, name, description, parentId, null, null);
+    }
+
 }
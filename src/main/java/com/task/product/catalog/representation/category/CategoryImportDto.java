@@ -0,0 +1,27 @@
+package com.task.product.catalog.representation.category;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryImportDto {
+
+    @ApiModelProperty(required = true)
+    @NotNull(message = "Category id should be non-null")
+    private UUID id;
+
+    @ApiModelProperty(required = true)
+    @NotBlank(message = "Category name should be non-null")
+    private String name;
+
+    private String description;
+
+    private UUID parentId;
+}
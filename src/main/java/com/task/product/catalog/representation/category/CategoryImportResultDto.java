@@ -0,0 +1,19 @@
+package com.task.product.catalog.representation.category;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryImportResultDto {
+
+    private long categories;
+
+    private long closureRows;
+
+    private long elapsedMillis;
+
+    private long rowsPerSecond;
+
+}
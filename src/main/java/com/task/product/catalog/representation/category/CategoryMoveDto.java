@@ -0,0 +1,16 @@
+package com.task.product.catalog.representation.category;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryMoveDto {
+
+    @ApiModelProperty(value = "New parent category id, null moves the category to the root level.")
+    private UUID parentId;
+}
@@ -0,0 +1,7 @@
+package com.task.product.catalog.service;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(final String message) {
+        super(message);
+    }
+}
@@ -3,9 +3,15 @@ package com.task.product.catalog.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Преобразование сущностей в DTO и обратно.
+ * <p>
+ * Реализации копируют поля явно, без рефлексии: конвертация списков выполняется на горячих путях
+ * (выгрузка всего дерева, поддеревья, страницы).
+ */
 public abstract class Converter<E, D> {
 
     public abstract D convertEntityToDto(E entity);
@@ -13,9 +19,11 @@ public abstract class Converter<E, D> {
     public abstract E convertDtoToEntity(D dto);
 
     public List<D> convertEntityListToDtoList(final List<E> entityList) {
-        return entityList.stream()
-                .map(this::convertEntityToDto)
-                .collect(Collectors.toList());
+        List<D> dtoList = new ArrayList<>(entityList.size());
+        for (E entity : entityList) {
+            dtoList.add(convertEntityToDto(entity));
+        }
+        return dtoList;
     }
 
     public Page<D> convertEntityPageToDtoPage(final Page<E> entityPage) {
@@ -26,4 +34,3 @@ public abstract class Converter<E, D> {
         return null;
     }
 }
-
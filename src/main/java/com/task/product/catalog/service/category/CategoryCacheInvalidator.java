@@ -0,0 +1,57 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.domain.model.category.Category;
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import org.hibernate.SessionFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+/**
+ * Инвалидирует кэш второго уровня и кэш запросов Hibernate после изменений, которые Hibernate не видит.
+ * <p>
+ * Изменения через сущности Hibernate инвалидирует сам. Здесь обрабатываются:
+ * 1) категории поддерева, удаленные запросами JDBC или каскадно базой
+ * 2) предки, счетчики детей и потомков которых изменены запросами JDBC
+ * 3) массовые операции на JDBC (импорт), после которых устаревают закэшированные списки дочерних категорий
+ * <p>
+ * Инвалидация выполняется после коммита, иначе конкурентное чтение могло бы вернуть в кэш еще не удаленные данные,
+ * и раньше смены версии каталога в {@link CategoryVersionTracker}, иначе новый ETag достался бы старому содержимому кэша.
+ */
+@Component
+public class CategoryCacheInvalidator {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CategoryCacheInvalidator(final EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(CategoryVersionTracker.BEFORE_VERSION_CHANGE)
+    public void onCategoryChanged(final CategoryChangedEvent event) {
+        Cache cache = entityManagerFactory.getCache();
+        for (UUID categoryId : event.getRemovedIds()) {
+            cache.evict(Category.class, categoryId);
+        }
+        for (UUID categoryId : event.getUpdatedIds()) {
+            cache.evict(Category.class, categoryId);
+        }
+        if (event.getType() == CategoryChangeType.IMPORTED) {
+            cache.evict(Category.class);
+        }
+        if (event.getType() == CategoryChangeType.IMPORTED || !event.getRemovedIds().isEmpty()) {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        }
+    }
+
+    /* Изменения, сделанные другим экземпляром сервиса: какие категории затронуты, здесь неизвестно. */
+    public void evictAll() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
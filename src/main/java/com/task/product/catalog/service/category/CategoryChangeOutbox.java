@@ -0,0 +1,64 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import com.task.product.catalog.repository.category.CategoryChangeJdbcRepository;
+import com.task.product.catalog.repository.category.CategoryJdbcRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Записывает изменения дерева категорий в outbox ('category_change') в транзакции операции записи:
+ * изменение попадает в ленту тогда и только тогда, когда закоммичена сама операция.
+ * <p>
+ * В затронутые категории входят сама категория, удаленные категории и категории с измененными счетчиками.
+ * Для перемещения - все перемещенное поддерево: у его узлов изменился путь от корня.
+ */
+@Component
+public class CategoryChangeOutbox {
+
+    private final CategoryChangeJdbcRepository categoryChangeJdbcRepository;
+
+    private final CategoryJdbcRepository categoryJdbcRepository;
+
+    public CategoryChangeOutbox(
+            final CategoryChangeJdbcRepository categoryChangeJdbcRepository,
+            final CategoryJdbcRepository categoryJdbcRepository
+    ) {
+        this.categoryChangeJdbcRepository = categoryChangeJdbcRepository;
+        this.categoryJdbcRepository = categoryJdbcRepository;
+    }
+
+    /**
+     * Импорт пишет изменения сам, по одному на пакет ({@link #record}):
+     * одна строка на весь импорт содержала бы id всех импортированных категорий.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCategoryChanged(final CategoryChangedEvent event) {
+        if (event.getType() == CategoryChangeType.IMPORTED) {
+            return;
+        }
+        Set<UUID> affectedIds = new LinkedHashSet<>();
+        if (event.getCategoryId() != null) {
+            affectedIds.add(event.getCategoryId());
+        }
+        if (event.getType() == CategoryChangeType.MOVED) {
+            affectedIds.addAll(categoryJdbcRepository.findSubtreeIds(event.getCategoryId()));
+        }
+        affectedIds.addAll(event.getRemovedIds());
+        affectedIds.addAll(event.getUpdatedIds());
+        record(event.getType(), event.getCategoryId(), affectedIds);
+    }
+
+    /**
+     * Записывает изменение в текущей транзакции.
+     */
+    public void record(final CategoryChangeType type, final UUID categoryId, final Collection<UUID> affectedIds) {
+        categoryChangeJdbcRepository.insert(type, categoryId, affectedIds);
+    }
+}
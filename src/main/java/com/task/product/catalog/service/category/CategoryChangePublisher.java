@@ -0,0 +1,88 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.repository.category.CategoryChangeJdbcRepository;
+import com.task.product.catalog.representation.category.CategoryChangeDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Публикует изменения из outbox ('category_change') пакетами.
+ * <p>
+ * Каждый пакет публикуется в своей транзакции под advisory-блокировкой: изменениям назначаются позиции в ленте,
+ * пакет передается {@link CategoryChangeSink}, если он настроен, и транзакция коммитится.
+ * Ошибка получателя откатывает пакет, он будет отправлен при следующем запуске.
+ * Без получателя (catalog.category.changes.sink=none) изменения только появляются в ленте.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class CategoryChangePublisher {
+
+    private final CategoryChangeJdbcRepository categoryChangeJdbcRepository;
+
+    private final CategoryChangeSink sink;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final Duration retention;
+
+    public CategoryChangePublisher(
+            final CategoryChangeJdbcRepository categoryChangeJdbcRepository,
+            final ObjectProvider<CategoryChangeSink> sink,
+            final PlatformTransactionManager transactionManager,
+            @Value("${catalog.category.changes.batch-size:500}") final int batchSize,
+            @Value("${catalog.category.changes.retention:7d}") final Duration retention
+    ) {
+        this.categoryChangeJdbcRepository = categoryChangeJdbcRepository;
+        this.sink = sink.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.category.changes.publish-interval:PT1S}")
+    public void publishPending() {
+        try {
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> publishBatch()))) {
+                // Следующий пакет
+            }
+        } catch (RuntimeException e) {
+            log.warn("Category changes publishing failed, will retry", e);
+        }
+    }
+
+    /* true - пакет полный, за ним могут быть еще изменения. */
+    private boolean publishBatch() {
+        if (!categoryChangeJdbcRepository.tryLockPublisher()) {
+            return false;
+        }
+        List<CategoryChangeDto> changes = categoryChangeJdbcRepository.publishPending(batchSize);
+        if (!changes.isEmpty() && sink != null) {
+            sink.publish(changes);
+        }
+        return changes.size() == batchSize;
+    }
+
+    /**
+     * Потребитель, отставший больше чем на срок хранения, должен заново загрузить дерево целиком.
+     */
+    @Scheduled(cron = "${catalog.category.changes.cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = categoryChangeJdbcRepository.deletePublishedBefore(Instant.now().minus(retention));
+        log.info("Deleted {} published category changes older than {}", deleted, retention);
+    }
+}
@@ -0,0 +1,21 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.representation.category.CategoryChangeDto;
+
+import java.util.List;
+
+/**
+ * Получатель опубликованных изменений дерева категорий.
+ * <p>
+ * Доставка - "хотя бы один раз": если публикация пакета не закоммитилась после вызова получателя,
+ * пакет будет отправлен повторно. Потребители должны быть идемпотентны по position.
+ * Выбирается свойством catalog.category.changes.sink.
+ */
+public interface CategoryChangeSink {
+
+    /**
+     * Отправляет пакет изменений в порядке позиций. Исключение откатывает публикацию пакета.
+     */
+    void publish(List<CategoryChangeDto> changes);
+
+}
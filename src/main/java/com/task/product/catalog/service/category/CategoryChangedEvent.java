@@ -0,0 +1,34 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Событие изменения дерева категорий.
+ * Публикуется каждой операцией записи в {@link CategoryServiceImpl} внутри ее транзакции.
+ * Для массовых операций categoryId не заполняется.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+
+    private final CategoryChangeType type;
+
+    private final UUID categoryId;
+
+    /* Категории, удаленные в обход Hibernate (JDBC или ON DELETE CASCADE): Hibernate о них не знает. */
+    private final Collection<UUID> removedIds;
+
+    /* Категории, строки которых изменены в обход Hibernate (счетчики детей и потомков). */
+    private final Collection<UUID> updatedIds;
+
+    public CategoryChangedEvent(final CategoryChangeType type, final UUID categoryId) {
+        this(type, categoryId, Collections.emptyList(), Collections.emptyList());
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.representation.category.CategoryChangeDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Пакет опубликованных изменений для слушателей внутри процесса ({@link InProcessCategoryChangeSink}).
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangesPublishedEvent {
+
+    private final List<CategoryChangeDto> changes;
+
+}
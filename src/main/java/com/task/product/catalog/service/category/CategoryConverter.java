@@ -3,7 +3,6 @@ package com.task.product.catalog.service.category;
 import com.task.product.catalog.representation.category.CategoryDto;
 import com.task.product.catalog.service.Converter;
 import com.task.product.catalog.domain.model.category.Category;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
@@ -14,9 +13,14 @@ public class CategoryConverter extends Converter<Category, CategoryDto> {
     @Override
     public CategoryDto convertEntityToDto(final Category entity) {
         if (entity != null) {
-            CategoryDto dto = new CategoryDto();
-            BeanUtils.copyProperties(entity, dto);
-            return dto;
+            return new CategoryDto(
+                    entity.getId(),
+                    entity.getName(),
+                    entity.getDescription(),
+                    entity.getParentId(),
+                    entity.getChildCount(),
+                    entity.getDescendantCount()
+            );
         }
         return null;
     }
@@ -25,8 +29,10 @@ public class CategoryConverter extends Converter<Category, CategoryDto> {
     public Category convertDtoToEntity(final CategoryDto dto) {
         if (dto != null) {
             Category entity = new Category();
-            BeanUtils.copyProperties(dto, entity);
             entity.setId(UUID.randomUUID());
+            entity.setName(dto.getName());
+            entity.setDescription(dto.getDescription());
+            entity.setParentId(dto.getParentId());
             return entity;
         }
         return null;
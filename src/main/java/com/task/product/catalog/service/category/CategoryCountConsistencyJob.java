@@ -0,0 +1,73 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import com.task.product.catalog.repository.category.CategoryJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Периодически сверяет счетчики детей и потомков категорий с 'category_closure'.
+ * <p>
+ * Количество разошедшихся категорий публикуется метрикой catalog.category.count.drift и пишется в лог.
+ * Если включено исправление (catalog.category.counts.repair), счетчики переписываются вычисленными значениями.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class CategoryCountConsistencyJob {
+
+    private static final int LOGGED_IDS = 10;
+
+    private final CategoryJdbcRepository categoryJdbcRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean repair;
+
+    private final AtomicLong drift;
+
+    public CategoryCountConsistencyJob(
+            final CategoryJdbcRepository categoryJdbcRepository,
+            final ApplicationEventPublisher eventPublisher,
+            final MeterRegistry meterRegistry,
+            @Value("${catalog.category.counts.repair:false}") final boolean repair
+    ) {
+        this.categoryJdbcRepository = categoryJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.repair = repair;
+        this.drift = meterRegistry.gauge("catalog.category.count.drift", new AtomicLong());
+    }
+
+    @Scheduled(cron = "${catalog.category.counts.check-cron:0 0 3 * * *}")
+    @Transactional
+    public void checkCounts() {
+        List<UUID> driftedIds = categoryJdbcRepository.findCountDrift();
+        drift.set(driftedIds.size());
+        if (driftedIds.isEmpty()) {
+            log.info("Category counts are consistent with category_closure");
+            return;
+        }
+        log.warn("Category counts drifted from category_closure for {} categories, e.g. {}",
+                driftedIds.size(), driftedIds.subList(0, Math.min(LOGGED_IDS, driftedIds.size())));
+        if (!repair) {
+            return;
+        }
+
+        categoryJdbcRepository.lockTreeStructure(true);
+        List<UUID> repairedIds = categoryJdbcRepository.repairCountDrift();
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                CategoryChangeType.COUNTS_REPAIRED, null, Collections.emptyList(), repairedIds));
+        log.warn("Category counts repaired for {} categories", repairedIds.size());
+    }
+}
@@ -0,0 +1,66 @@
+package com.task.product.catalog.service.category;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Генератор id новых категорий (catalog.category.id-strategy).
+ * <p>
+ * random - UUID версии 4. Случайные ключи вставляются в случайные страницы индекса первичного ключа
+ * и внешних ключей 'category_closure', поэтому при большом объеме записи индексы фрагментируются.
+ * time-ordered - UUID версии 7 (RFC 9562): первые 48 бит - время в миллисекундах, поэтому новые ключи
+ * попадают в правую страницу индекса. Внутри одной миллисекунды 12 бит rand_a работают как счетчик,
+ * так что id одного экземпляра сервиса строго возрастают.
+ */
+@Component
+public class CategoryIdGenerator {
+
+    private static final int MAX_COUNTER = 0xFFF;
+
+    private final boolean timeOrdered;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private long lastMillis;
+
+    private int counter;
+
+    public CategoryIdGenerator(@Value("${catalog.category.id-strategy:random}") final String strategy) {
+        switch (strategy) {
+            case "random":
+                timeOrdered = false;
+                break;
+            case "time-ordered":
+                timeOrdered = true;
+                break;
+            default:
+                throw new IllegalStateException("Unknown category id strategy \"" + strategy
+                        + "\", expected \"random\" or \"time-ordered\".");
+        }
+    }
+
+    public UUID nextId() {
+        return timeOrdered ? nextTimeOrderedId() : UUID.randomUUID();
+    }
+
+    private synchronized UUID nextTimeOrderedId() {
+        long millis = System.currentTimeMillis();
+        if (millis > lastMillis) {
+            lastMillis = millis;
+            /* Старший бит счетчика свободен, чтобы в миллисекунде оставался запас на 2048 id. */
+            counter = random.nextInt(MAX_COUNTER / 2 + 1);
+        } else if (counter < MAX_COUNTER) {
+            counter++;
+        } else {
+            /* Счетчик исчерпан или часы ушли назад: продолжаем со следующей миллисекунды. */
+            lastMillis++;
+            counter = 0;
+        }
+        long mostSigBits = (lastMillis << 16) | 0x7000L | counter;
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,24 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.representation.category.CategoryImportDto;
+import com.task.product.catalog.representation.category.CategoryImportResultDto;
+
+import java.util.Iterator;
+
+/**
+ * Сервис массового импорта категорий.
+ */
+public interface CategoryImportService {
+
+    /**
+     * Импортирует дерево или лес категорий одной транзакцией.
+     * <p>
+     * Категории читаются потоково. Родитель категории должен либо уже существовать в базе,
+     * либо присутствовать в импортируемых данных (в любом месте потока).
+     * Связи 'category_closure' вычисляются в памяти и пишутся пакетами.
+     *
+     * @param categories поток импортируемых категорий
+     * @return статистика импорта
+     */
+    CategoryImportResultDto importCategories(Iterator<CategoryImportDto> categories);
+}
@@ -0,0 +1,265 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.domain.model.category.Category;
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import com.task.product.catalog.domain.model.category.CategoryClosure;
+import com.task.product.catalog.repository.category.CategoryJdbcRepository;
+import com.task.product.catalog.representation.category.CategoryImportDto;
+import com.task.product.catalog.representation.category.CategoryImportResultDto;
+import com.task.product.catalog.service.BadRequestException;
+import com.task.product.catalog.service.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация {@link CategoryImportService}.
+ * <p>
+ * Категории записываются в порядке "родитель раньше потомка": категория, родитель которой еще не записан,
+ * ждет его в памяти. Если входные данные уже упорядочены так (обход дерева сверху вниз),
+ * в памяти держатся только id импортированных категорий и текущие пакеты строк.
+ * <p>
+ * Связи 'category_closure' новой категории вычисляются по цепочке родителей из уже импортированных категорий
+ * и связям существующих в базе предков, которые загружаются один раз на пакет.
+ * Строки 'category' и 'category_closure' пишутся пакетными вставками JDBC.
+ *
+ * @see CategoryImportService
+ */
+@Service
+@Slf4j
+public class CategoryImportServiceImpl implements CategoryImportService {
+
+    private final CategoryJdbcRepository categoryJdbcRepository;
+
+    private final CategoryChangeOutbox changeOutbox;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
+    public CategoryImportServiceImpl(
+            final CategoryJdbcRepository categoryJdbcRepository,
+            final CategoryChangeOutbox changeOutbox,
+            final Validator validator,
+            final ApplicationEventPublisher eventPublisher,
+            @Value("${catalog.category.import.batch-size:1000}") final int batchSize
+    ) {
+        this.categoryJdbcRepository = categoryJdbcRepository;
+        this.changeOutbox = changeOutbox;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public CategoryImportResultDto importCategories(final Iterator<CategoryImportDto> categories) {
+        long start = System.nanoTime();
+        categoryJdbcRepository.lockTreeStructure(false);
+
+        Import categoryImport = new Import();
+        while (categories.hasNext()) {
+            categoryImport.accept(validate(categories.next()));
+        }
+        categoryImport.finish();
+
+        if (categoryImport.categoryCount > 0) {
+            eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangeType.IMPORTED, null));
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long rows = categoryImport.categoryCount + categoryImport.closureCount;
+        long rowsPerSecond = rows * 1000 / Math.max(1, elapsedMillis);
+        log.info("Imported {} categories and {} closure rows in {} ms ({} rows/s)",
+                categoryImport.categoryCount, categoryImport.closureCount, elapsedMillis, rowsPerSecond);
+        return new CategoryImportResultDto(
+                categoryImport.categoryCount, categoryImport.closureCount, elapsedMillis, rowsPerSecond);
+    }
+
+    private CategoryImportDto validate(final CategoryImportDto category) {
+        Set<ConstraintViolation<CategoryImportDto>> violations = validator.validate(category);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.toList())
+                    .toString());
+        }
+        return category;
+    }
+
+    /**
+     * Состояние одного импорта.
+     */
+    private class Import {
+
+        /* id импортированной категории -> id ее родителя. */
+        private final Map<UUID, UUID> importedParents = new HashMap<>();
+
+        /* id существующей в базе категории -> ее связи с предками, включая связь с собой. */
+        private final Map<UUID, List<CategoryClosure>> existingAncestors = new HashMap<>();
+
+        /* id еще не записанного родителя -> ожидающие его категории. */
+        private final Map<UUID, List<CategoryImportDto>> waiting = new HashMap<>();
+
+        /* Родители, которых точно нет в базе: они должны встретиться дальше в потоке. */
+        private final Set<UUID> notInDatabase = new HashSet<>();
+
+        private final List<Category> categoryBatch = new ArrayList<>();
+
+        private final List<CategoryClosure> closureBatch = new ArrayList<>();
+
+        private long categoryCount;
+
+        private long closureCount;
+
+        private void accept(final CategoryImportDto category) {
+            UUID parentId = category.getParentId();
+            if (parentId == null || importedParents.containsKey(parentId) || existingAncestors.containsKey(parentId)) {
+                write(category);
+                return;
+            }
+            boolean newParent = !waiting.containsKey(parentId);
+            waiting.computeIfAbsent(parentId, it -> new ArrayList<>()).add(category);
+            if (newParent && waiting.size() - notInDatabase.size() >= batchSize) {
+                resolveExistingParents();
+            }
+        }
+
+        private void finish() {
+            resolveExistingParents();
+            if (!waiting.isEmpty()) {
+                throw new NotFoundException(
+                        "Parent category with Id \"" + waiting.keySet().iterator().next() + "\" not found.");
+            }
+            flush();
+        }
+
+        /* Записывает категорию и всех ожидавших ее потомков. */
+        private void write(final CategoryImportDto category) {
+            Deque<CategoryImportDto> queue = new ArrayDeque<>();
+            queue.add(category);
+            while (!queue.isEmpty()) {
+                CategoryImportDto next = queue.poll();
+                writeOne(next);
+                List<CategoryImportDto> children = waiting.remove(next.getId());
+                if (children != null) {
+                    notInDatabase.remove(next.getId());
+                    queue.addAll(children);
+                }
+            }
+        }
+
+        private void writeOne(final CategoryImportDto dto) {
+            UUID id = dto.getId();
+            if (importedParents.containsKey(id)) {
+                throw new BadRequestException("Duplicate category Id \"" + id + "\".");
+            }
+            importedParents.put(id, dto.getParentId());
+
+            Category category = new Category();
+            category.setId(id);
+            category.setName(dto.getName());
+            category.setDescription(dto.getDescription());
+            category.setParentId(dto.getParentId());
+            categoryBatch.add(category);
+
+            closureBatch.add(new CategoryClosure(id, id, 0));
+            int depth = 1;
+            UUID ancestorId = dto.getParentId();
+            while (ancestorId != null && importedParents.containsKey(ancestorId)) {
+                closureBatch.add(new CategoryClosure(ancestorId, id, depth++));
+                ancestorId = importedParents.get(ancestorId);
+            }
+            if (ancestorId != null) {
+                for (CategoryClosure link : existingAncestors.get(ancestorId)) {
+                    closureBatch.add(new CategoryClosure(link.getAncestorId(), id, link.getDepth() + depth));
+                }
+            }
+
+            if (categoryBatch.size() >= batchSize || closureBatch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /* Проверяет одним запросом, какие из ожидаемых родителей уже есть в базе, и загружает их связи. */
+        private void resolveExistingParents() {
+            List<UUID> candidates = waiting.keySet().stream()
+                    .filter(it -> !notInDatabase.contains(it))
+                    .collect(Collectors.toList());
+            if (candidates.isEmpty()) {
+                return;
+            }
+            List<UUID> existing = categoryJdbcRepository.findExistingIds(candidates);
+            notInDatabase.addAll(candidates);
+            notInDatabase.removeAll(existing);
+            if (existing.isEmpty()) {
+                return;
+            }
+            for (CategoryClosure link : categoryJdbcRepository.findAncestorLinks(existing)) {
+                existingAncestors.computeIfAbsent(link.getDescendantId(), it -> new ArrayList<>()).add(link);
+            }
+            for (UUID parentId : existing) {
+                List<CategoryImportDto> children = waiting.remove(parentId);
+                for (CategoryImportDto child : children) {
+                    write(child);
+                }
+            }
+        }
+
+        /* Каждая новая связь с предком - плюс один потомок предку, связь с родителем - еще и плюс один ребенок. */
+        private Map<UUID, int[]> countDeltas(final List<CategoryClosure> closureRows) {
+            Map<UUID, int[]> deltas = new HashMap<>();
+            for (CategoryClosure link : closureRows) {
+                if (link.getDepth() > 0) {
+                    int[] delta = deltas.computeIfAbsent(link.getAncestorId(), it -> new int[2]);
+                    delta[0] += link.getDepth() == 1 ? 1 : 0;
+                    delta[1]++;
+                }
+            }
+            return deltas;
+        }
+
+        /*
+         * Строки 'category' пишутся раньше связей из-за внешних ключей 'category_closure'.
+         * В ленту изменений пакет попадает одной записью: новые категории и предки с измененными счетчиками.
+         */
+        private void flush() {
+            Set<UUID> affectedIds = new LinkedHashSet<>();
+            if (!categoryBatch.isEmpty()) {
+                categoryJdbcRepository.insertCategories(categoryBatch);
+                categoryBatch.forEach(it -> affectedIds.add(it.getId()));
+                categoryCount += categoryBatch.size();
+                categoryBatch.clear();
+            }
+            if (!closureBatch.isEmpty()) {
+                Map<UUID, int[]> countDeltas = countDeltas(closureBatch);
+                categoryJdbcRepository.insertClosure(closureBatch);
+                categoryJdbcRepository.addCounts(countDeltas);
+                affectedIds.addAll(countDeltas.keySet());
+                closureCount += closureBatch.size();
+                closureBatch.clear();
+            }
+            if (!affectedIds.isEmpty()) {
+                changeOutbox.record(CategoryChangeType.IMPORTED, null, affectedIds);
+            }
+        }
+    }
+}
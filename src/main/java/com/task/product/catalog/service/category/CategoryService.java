@@ -1,12 +1,19 @@
 package com.task.product.catalog.service.category;
 
+import com.task.product.catalog.representation.category.CategoryBatchDto;
+import com.task.product.catalog.representation.category.CategoryChangeFeedDto;
+import com.task.product.catalog.representation.category.CategoryColumns;
 import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryCursorPageDto;
+import com.task.product.catalog.representation.category.CategoryDeleteResultDto;
 import com.task.product.catalog.representation.category.CategoryDto;
 import com.task.product.catalog.representation.category.CategoryUpdateDto;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Сервис управления категориями товаров.
@@ -22,10 +29,19 @@ public interface CategoryService {
      */
     CategoryDto createCategory(CategoryCreateDto categoryCreateDto);
 
+    /**
+     * Создает несколько категорий одной транзакцией за несколько запросов к базе независимо от их количества.
+     * Родители должны уже существовать.
+     *
+     * @param categoryCreateDtos категории
+     * @return созданные категории в порядке запроса
+     */
+    List<CategoryDto> createCategories(List<CategoryCreateDto> categoryCreateDtos);
+
     /**
      * Редактирует категорию.
-     * На данный момент реализовано редактирование только полей 'имя' и 'описание'.
-     * Нет возможности изменить родительскую категорию.
+     * Редактируются только поля 'имя' и 'описание'.
+     * Для смены родительской категории используется {@link #moveCategory(UUID, UUID)}.
      *
      * @param categoryId        id категории
      * @param categoryUpdateDto категория
@@ -33,6 +49,16 @@ public interface CategoryService {
      */
     CategoryDto updateCategory(UUID categoryId, CategoryUpdateDto categoryUpdateDto);
 
+    /**
+     * Перемещает категорию вместе со всем ее поддеревом под другого родителя.
+     * Категорию нельзя переместить под саму себя или под своего потомка.
+     *
+     * @param categoryId id категории
+     * @param parentId   id нового родителя, null - категория становится корневой
+     * @return категорию
+     */
+    CategoryDto moveCategory(UUID categoryId, UUID parentId);
+
     /**
      * Возвращает категорию по ID.
      *
@@ -52,22 +78,92 @@ public interface CategoryService {
      */
     Page<CategoryDto> getChildren(UUID categoryId, Integer page, Integer size);
 
+    /**
+     * Ищет категории по тексту.
+     * Префиксный поиск (подсказки при вводе) ищет категории, в названии которых есть слова,
+     * начинающиеся со слов запроса. Полнотекстовый поиск ищет слова запроса в названии и описании.
+     *
+     * @param text             текст запроса
+     * @param prefix           true - префиксный поиск по названию, false - полнотекстовый
+     * @param withinCategoryId id категории, в поддереве которой ведется поиск, null - по всему дереву
+     * @param page             номер страницы
+     * @param size             размер страницы
+     * @return страница найденных категорий без общего количества
+     */
+    Slice<CategoryDto> searchCategories(String text, boolean prefix, UUID withinCategoryId, int page, int size);
+
     /**
      * Возвращает всех потомков данной категории.
      * Возвращается все поддерево, у которого корень - данная категория.
+     * Глубину поддерева можно ограничить: 1 - только прямые потомки, 2 - потомки и их дети и т.д.
      *
      * @param categoryId id категории-предка
+     * @param maxDepth   максимальная глубина относительно категории-предка (не меньше 1), null - без ограничения
+     * @return список категорий; братья упорядочены по (name, id)
+     */
+    List<CategoryDto> getDescendants(UUID categoryId, Integer maxDepth);
+
+    /**
+     * Возвращает путь от корня дерева до данной категории (breadcrumbs).
+     * Путь упорядочен от корня и заканчивается самой категорией.
+     *
+     * @param categoryId id категории
      * @return список категорий
      */
-    List<CategoryDto> getDescendants(UUID categoryId);
+    List<CategoryDto> getAncestors(UUID categoryId);
 
     /**
      * Возвращает все категории (полное дерево).
      *
-     * @return список категорий
+     * @return список категорий; братья упорядочены по (name, id)
      */
     List<CategoryDto> getCategories();
 
+    /**
+     * Возвращает все категории в компактном столбцовом представлении для выгрузки всего каталога.
+     *
+     * @return категории в столбцах примитивных массивов
+     */
+    CategoryColumns getCategoryColumns();
+
+    /**
+     * Возвращает категории по списку id одним запросом.
+     * Категории возвращаются в порядке запроса, отсутствующие id перечисляются отдельно.
+     *
+     * @param ids              id категорий
+     * @param includeAncestors true - вернуть и путь от корня до каждой категории
+     * @return найденные категории и отсутствующие id
+     */
+    CategoryBatchDto getCategories(List<UUID> ids, boolean includeAncestors);
+
+    /**
+     * Возвращает страницу всех категорий, упорядоченных по id.
+     * Следующая страница запрашивается по id последней категории предыдущей страницы.
+     *
+     * @param after id, после которого начинается страница, null - первая страница
+     * @param limit размер страницы
+     * @return страница категорий
+     */
+    CategoryCursorPageDto getCategories(UUID after, int limit);
+
+    /**
+     * Возвращает опубликованные изменения дерева после указанной позиции ленты (инкрементальная синхронизация).
+     * Потребитель хранит nextSince ответа и передает его в следующий запрос.
+     *
+     * @param since позиция последнего полученного изменения, 0 - с начала ленты
+     * @param limit максимальное количество изменений
+     * @return изменения в порядке позиций
+     */
+    CategoryChangeFeedDto getChanges(long since, int limit);
+
+    /**
+     * Передает все категории потребителю по одной, по мере чтения из базы.
+     * Потребление памяти не зависит от количества категорий.
+     *
+     * @param consumer потребитель категорий
+     */
+    void streamCategories(Consumer<CategoryDto> consumer);
+
     /**
      * Возвращает все корневые категории.
      *
@@ -76,9 +172,22 @@ public interface CategoryService {
     List<CategoryDto> getRootCategories();
 
     /**
-     * Удаляет категорию по ID.
+     * Удаляет категорию по ID вместе со всем поддеревом одной транзакцией.
+     *
+     * @param categoryId id категории
+     * @return количество удаленных строк
+     */
+    CategoryDeleteResultDto deleteCategory(UUID categoryId);
+
+    /**
+     * Удаляет категорию по ID вместе со всем поддеревом частями, начиная с самых глубоких категорий.
+     * Каждая часть удаляется отдельной транзакцией, поэтому удаление большого поддерева
+     * не держит блокировки долго. Между частями дерево остается согласованным:
+     * удаляются только категории, все потомки которых уже удалены.
      *
      * @param categoryId id категории
+     * @param chunkSize  количество категорий в одной транзакции
+     * @return количество удаленных строк
      */
-    void deleteCategory(UUID categoryId);
+    CategoryDeleteResultDto deleteCategory(UUID categoryId, int chunkSize);
 }
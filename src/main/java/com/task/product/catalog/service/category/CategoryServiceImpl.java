@@ -1,21 +1,50 @@
 package com.task.product.catalog.service.category;
 
 import com.task.product.catalog.domain.model.category.Category;
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import com.task.product.catalog.domain.model.category.CategoryClosure;
+import com.task.product.catalog.repository.category.CategoryChangeJdbcRepository;
+import com.task.product.catalog.repository.category.CategoryClosureRepository;
+import com.task.product.catalog.repository.category.CategoryJdbcRepository;
 import com.task.product.catalog.repository.category.CategoryRepository;
+import com.task.product.catalog.representation.category.CategoryBatchDto;
+import com.task.product.catalog.representation.category.CategoryChangeDto;
+import com.task.product.catalog.representation.category.CategoryChangeFeedDto;
+import com.task.product.catalog.representation.category.CategoryColumns;
 import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryCursorPageDto;
+import com.task.product.catalog.representation.category.CategoryDeleteResultDto;
 import com.task.product.catalog.representation.category.CategoryDto;
 import com.task.product.catalog.representation.category.CategoryUpdateDto;
+import com.task.product.catalog.service.BadRequestException;
 import com.task.product.catalog.service.NotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Реализация  {@link CategoryService}.
@@ -36,51 +65,201 @@ import java.util.stream.Collectors;
  * А так как каждый элемент списка содержит id ближайшего родителя, на ui его можно легко превратить в иерархическую структуру.
  * <p>
  * Для того чтобы получить только ближайших потомков определенной категории делается запрос только к первой таблице.
+ * <p>
+ * Если включен снимок дерева ({@link CategoryTreeSnapshotHolder}), операции чтения обслуживаются из памяти
+ * и к базе не обращаются. Снимок перестраивается после каждой успешной операции записи.
+ * <p>
+ * Без снимка сущности категорий и списки дочерних категорий кэшируются в кэше второго уровня Hibernate.
+ * Изменения, которых Hibernate не видит, инвалидирует {@link CategoryCacheInvalidator}.
+ * <p>
+ * Операции чтения выполняются в транзакциях только для чтения: Hibernate не делает снимков загруженных сущностей
+ * для dirty checking и не сбрасывает persistence context перед коммитом.
+ * <p>
+ * Каждая операция записи в той же транзакции поправляет счетчики детей и потомков у затронутых предков,
+ * поэтому чтение счетчиков не требует запросов к 'category_closure'.
  *
  * @see CategoryService
  */
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    /* Слова запроса поиска: последовательности букв и цифр, остальное - разделители. */
+    private static final Pattern SEARCH_WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     private CategoryRepository categoryRepository;
 
+    private CategoryClosureRepository categoryClosureRepository;
+
+    private CategoryJdbcRepository categoryJdbcRepository;
+
+    private CategoryChangeJdbcRepository categoryChangeJdbcRepository;
 
     private CategoryConverter categoryConverter;
 
+    private CategoryTreeSnapshotHolder snapshotHolder;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private TransactionTemplate transactionTemplate;
+
+    /* Для чтений, которые при включенном снимке обходятся без базы и не должны брать соединение из пула. */
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    private CategoryIdGenerator idGenerator;
+
     public CategoryServiceImpl(
             final CategoryRepository categoryRepository,
-            final CategoryConverter categoryConverter
+            final CategoryClosureRepository categoryClosureRepository,
+            final CategoryJdbcRepository categoryJdbcRepository,
+            final CategoryChangeJdbcRepository categoryChangeJdbcRepository,
+            final CategoryConverter categoryConverter,
+            final CategoryTreeSnapshotHolder snapshotHolder,
+            final ApplicationEventPublisher eventPublisher,
+            final PlatformTransactionManager transactionManager,
+            final CategoryIdGenerator idGenerator
     ) {
         this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+        this.categoryJdbcRepository = categoryJdbcRepository;
+        this.categoryChangeJdbcRepository = categoryChangeJdbcRepository;
         this.categoryConverter = categoryConverter;
+        this.snapshotHolder = snapshotHolder;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.idGenerator = idGenerator;
     }
 
     @Transactional
     public CategoryDto createCategory(final CategoryCreateDto categoryCreateDto) {
         UUID parentId = categoryCreateDto.getParentId();
-        Category parentCategory = null;
         if (parentId != null) {
-            parentCategory = getCategoryById(parentId); // Проверка
+            categoryJdbcRepository.lockTreeStructure(false);
+            getCategoryById(parentId); // Проверка
         }
 
         Category category = new Category(
+                idGenerator.nextId(),
                 categoryCreateDto.getName(),
                 categoryCreateDto.getDescription(),
                 parentId
         );
-        categoryRepository.save(category);
+        /* Строка категории нужна в базе раньше связей из-за внешних ключей 'category_closure'. */
+        categoryRepository.saveAndFlush(category);
 
         /* Сохраняем все связи новой категории согласно паттерну 'Closure Table'. */
-        /* Используем нативный query для быстрой и эффективной вставки всех связей. */
-        if (parentCategory != null) {
-            categoryRepository.saveDescendant(category.getId(), category.getParentId());
-        } else {
-            categoryRepository.saveDescendant(category.getId());
-        }
+        /* Используем один INSERT ... SELECT для быстрой и эффективной вставки всех связей. */
+        categoryJdbcRepository.insertAncestorLinks(category.getId(), parentId);
+        List<UUID> updatedIds = parentId == null
+                ? Collections.emptyList()
+                : categoryJdbcRepository.updateAncestorCounts(category.getId(), 1);
 
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                CategoryChangeType.CREATED, category.getId(), Collections.emptyList(), updatedIds));
         return categoryConverter.convertEntityToDto(category);
     }
 
+    /**
+     * Связи с предками всех родителей загружаются одним запросом: связь с собой есть у каждой категории,
+     * поэтому тот же запрос проверяет существование родителей. Категории вставляются пакетами Hibernate,
+     * связи и счетчики предков - пакетами JDBC. Новые категории тоже перечисляются в событии среди измененных,
+     * чтобы попасть в ленту изменений.
+     */
+    @Transactional
+    public List<CategoryDto> createCategories(final List<CategoryCreateDto> categoryCreateDtos) {
+        if (categoryCreateDtos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<UUID> parentIds = categoryCreateDtos.stream()
+                .map(CategoryCreateDto::getParentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<UUID, List<CategoryClosure>> parentAncestors = new HashMap<>();
+        if (!parentIds.isEmpty()) {
+            categoryJdbcRepository.lockTreeStructure(false);
+            for (CategoryClosure link : categoryJdbcRepository.findAncestorLinks(parentIds)) {
+                parentAncestors.computeIfAbsent(link.getDescendantId(), it -> new ArrayList<>()).add(link);
+            }
+            for (UUID parentId : parentIds) {
+                if (!parentAncestors.containsKey(parentId)) {
+                    throw categoryNotFound(parentId);
+                }
+            }
+        }
+
+        List<Category> categories = new ArrayList<>(categoryCreateDtos.size());
+        List<CategoryClosure> closureRows = new ArrayList<>();
+        /* id предка -> {прибавка к детям, прибавка к потомкам}. */
+        Map<UUID, int[]> countDeltas = new HashMap<>();
+        for (CategoryCreateDto categoryCreateDto : categoryCreateDtos) {
+            Category category = new Category(
+                    idGenerator.nextId(),
+                    categoryCreateDto.getName(),
+                    categoryCreateDto.getDescription(),
+                    categoryCreateDto.getParentId()
+            );
+            categories.add(category);
+            closureRows.add(new CategoryClosure(category.getId(), category.getId(), 0));
+            if (category.getParentId() == null) {
+                continue;
+            }
+            for (CategoryClosure link : parentAncestors.get(category.getParentId())) {
+                closureRows.add(new CategoryClosure(link.getAncestorId(), category.getId(), link.getDepth() + 1));
+                int[] delta = countDeltas.computeIfAbsent(link.getAncestorId(), it -> new int[2]);
+                delta[0] += link.getDepth() == 0 ? 1 : 0;
+                delta[1]++;
+            }
+        }
+
+        /* Строки категорий нужны в базе раньше связей из-за внешних ключей 'category_closure'. */
+        categoryRepository.saveAll(categories);
+        categoryRepository.flush();
+        categoryJdbcRepository.insertClosure(closureRows);
+        categoryJdbcRepository.addCounts(countDeltas);
+
+        List<UUID> updatedIds = categories.stream().map(Category::getId).collect(Collectors.toList());
+        updatedIds.addAll(countDeltas.keySet());
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                CategoryChangeType.CREATED, null, Collections.emptyList(), updatedIds));
+        return categoryConverter.convertEntityListToDtoList(categories);
+    }
+
+    /**
+     * Поиск всегда идет в базу, даже при включенном снимке дерева: снимок не индексирует текст.
+     * Возвращается Slice, а не Page: подсчет всех совпадений для коротких префиксов стоил бы больше самого поиска.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CategoryDto> searchCategories(
+            final String text,
+            final boolean prefix,
+            final UUID withinCategoryId,
+            final int page,
+            final int size
+    ) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new BadRequestException("Page should be non-negative and page size between 1 and "
+                    + MAX_SEARCH_PAGE_SIZE + ".");
+        }
+        List<String> words = Arrays.stream(SEARCH_WORD_SEPARATOR.split(text == null ? "" : text.toLowerCase()))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            throw new BadRequestException("Search text should contain letters or digits.");
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        /* Лишняя строка показывает, есть ли следующая страница. */
+        List<CategoryDto> content = categoryJdbcRepository.searchCategories(
+                words, prefix, withinCategoryId, pageable.getOffset(), size + 1);
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, pageable, hasNext);
+    }
+
+    @Transactional
     public CategoryDto updateCategory(final UUID categoryId, final CategoryUpdateDto categoryUpdateDto) {
         Category category = getCategoryById(categoryId); // Проверка
 
@@ -89,43 +268,279 @@ public class CategoryServiceImpl implements CategoryService {
 
         categoryRepository.save(category);
 
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangeType.UPDATED, categoryId));
+        return categoryConverter.convertEntityToDto(category);
+    }
+
+    /**
+     * Перемещение переписывает только связи перемещаемого поддерева двумя запросами:
+     * удаляются связи узлов поддерева с прежними внешними предками
+     * и вставляется декартово произведение предков нового родителя и узлов поддерева.
+     * Стоимость зависит от размера поддерева и глубины нового родителя, но не от размера всего дерева.
+     */
+    @Transactional
+    public CategoryDto moveCategory(final UUID categoryId, final UUID parentId) {
+        categoryJdbcRepository.lockTreeStructure(true);
+        Category category = getCategoryById(categoryId); // Проверка
+        if (Objects.equals(category.getParentId(), parentId)) {
+            return categoryConverter.convertEntityToDto(category);
+        }
+        if (parentId != null) {
+            getCategoryById(parentId); // Проверка
+            /* Связь категории с собой тоже есть в 'category_closure', поэтому проверяется и перемещение под себя. */
+            if (categoryClosureRepository.existsByAncestorIdAndDescendantId(categoryId, parentId)) {
+                throw new BadRequestException("Category with Id \"" + categoryId
+                        + "\" cannot be moved under its descendant \"" + parentId + "\".");
+            }
+        }
+
+        category.setParentId(parentId);
+        categoryRepository.saveAndFlush(category);
+
+        /* Счетчики прежних предков уменьшаются до удаления связей, новых - увеличиваются после вставки. */
+        List<UUID> updatedIds = new ArrayList<>(categoryJdbcRepository.updateAncestorCounts(categoryId, -1));
+        categoryJdbcRepository.deleteExternalAncestorLinks(categoryId);
+        if (parentId != null) {
+            categoryJdbcRepository.insertExternalAncestorLinks(categoryId, parentId);
+            updatedIds.addAll(categoryJdbcRepository.updateAncestorCounts(categoryId, 1));
+        }
+
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                CategoryChangeType.MOVED, categoryId, Collections.emptyList(), updatedIds));
         return categoryConverter.convertEntityToDto(category);
     }
 
     public CategoryDto getCategory(final UUID categoryId) {
-        return categoryConverter.convertEntityToDto(getCategoryById(categoryId));
+        if (snapshotHolder.isEnabled()) {
+            return snapshotHolder.current().getCategory(categoryId)
+                    .orElseThrow(() -> categoryNotFound(categoryId));
+        }
+        return readOnlyTransactionTemplate.execute(status ->
+                categoryConverter.convertEntityToDto(getCategoryById(categoryId)));
     }
 
     public List<CategoryDto> getCategories() {
-        return categoryConverter.convertEntityListToDtoList(categoryRepository.findAll());
+        if (snapshotHolder.isEnabled()) {
+            return snapshotHolder.current().getCategories();
+        }
+        return readOnlyTransactionTemplate.execute(status -> categoryRepository.findAllDtoOrderByName());
     }
 
-    public List<CategoryDto> getDescendants(final UUID categoryId) {
-        Category category = getCategoryById(categoryId);
-        List<Category> descendants = category.getDescendants()
-                .stream()
-                .filter(it -> !categoryId.equals(it.getId()))
-                .collect(Collectors.toList());
-        return categoryConverter.convertEntityListToDtoList(descendants);
+    public CategoryColumns getCategoryColumns() {
+        if (snapshotHolder.isEnabled()) {
+            return snapshotHolder.current().getColumns();
+        }
+        return readOnlyTransactionTemplate.execute(status -> categoryJdbcRepository.findAllColumns());
+    }
+
+    /**
+     * Без путей - один запрос к 'category', с путями - один join 'category_closure' с 'category':
+     * связь категории с собой (depth = 0) дает и саму категорию, и последний элемент пути.
+     */
+    public CategoryBatchDto getCategories(final List<UUID> ids, final boolean includeAncestors) {
+        Set<UUID> requestedIds = new LinkedHashSet<>(ids);
+        Map<UUID, CategoryDto> found = new HashMap<>(requestedIds.size() * 4 / 3 + 1);
+        Map<UUID, List<CategoryDto>> ancestors = null;
+        if (snapshotHolder.isEnabled()) {
+            CategoryTreeSnapshot snapshot = snapshotHolder.current();
+            ancestors = includeAncestors ? new HashMap<>() : null;
+            for (UUID id : requestedIds) {
+                Optional<List<CategoryDto>> path = snapshot.getAncestors(id);
+                if (path.isPresent()) {
+                    List<CategoryDto> categories = path.get();
+                    found.put(id, categories.get(categories.size() - 1));
+                    if (includeAncestors) {
+                        ancestors.put(id, categories);
+                    }
+                }
+            }
+        } else if (includeAncestors) {
+            ancestors = readOnlyTransactionTemplate.execute(status ->
+                    categoryJdbcRepository.findAncestorPaths(requestedIds));
+            for (Map.Entry<UUID, List<CategoryDto>> path : ancestors.entrySet()) {
+                found.put(path.getKey(), path.getValue().get(path.getValue().size() - 1));
+            }
+        } else {
+            List<CategoryDto> rows = readOnlyTransactionTemplate.execute(status ->
+                    categoryJdbcRepository.findCategories(requestedIds));
+            for (CategoryDto category : rows) {
+                found.put(category.getId(), category);
+            }
+        }
+
+        List<CategoryDto> categories = new ArrayList<>(found.size());
+        List<UUID> missingIds = new ArrayList<>();
+        for (UUID id : requestedIds) {
+            CategoryDto category = found.get(id);
+            if (category != null) {
+                categories.add(category);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new CategoryBatchDto(categories, missingIds, ancestors);
+    }
+
+    @Transactional(readOnly = true)
+    public CategoryCursorPageDto getCategories(final UUID after, final int limit) {
+        if (limit < 1 || limit > MAX_CURSOR_PAGE_SIZE) {
+            throw new BadRequestException("Page size should be between 1 and " + MAX_CURSOR_PAGE_SIZE + ".");
+        }
+        Pageable pageable = PageRequest.of(0, limit);
+        List<CategoryDto> content = after == null
+                ? categoryRepository.findFirstPage(pageable)
+                : categoryRepository.findPageAfter(after, pageable);
+        UUID nextCursor = content.size() < limit ? null : content.get(content.size() - 1).getId();
+        return new CategoryCursorPageDto(content, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public CategoryChangeFeedDto getChanges(final long since, final int limit) {
+        if (since < 0 || limit < 1 || limit > MAX_CURSOR_PAGE_SIZE) {
+            throw new BadRequestException("Position should be non-negative and limit between 1 and "
+                    + MAX_CURSOR_PAGE_SIZE + ".");
+        }
+        List<CategoryChangeDto> changes = categoryChangeJdbcRepository.findPublished(since, limit);
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getPosition();
+        return new CategoryChangeFeedDto(changes, nextSince);
+    }
+
+    public void streamCategories(final Consumer<CategoryDto> consumer) {
+        if (snapshotHolder.isEnabled()) {
+            snapshotHolder.current().getCategories().forEach(consumer);
+            return;
+        }
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<CategoryDto> categories = categoryRepository.streamAll()) {
+                categories.forEach(consumer);
+            }
+        });
+    }
+
+    public List<CategoryDto> getDescendants(final UUID categoryId, final Integer maxDepth) {
+        if (maxDepth != null && maxDepth < 1) {
+            throw new BadRequestException("Max depth should be positive.");
+        }
+        if (snapshotHolder.isEnabled()) {
+            return snapshotHolder.current().getDescendants(categoryId, maxDepth)
+                    .orElseThrow(() -> categoryNotFound(categoryId));
+        }
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<CategoryDto> descendants;
+            try (Stream<CategoryDto> stream = maxDepth == null
+                    ? categoryRepository.streamDescendants(categoryId)
+                    : categoryRepository.streamDescendants(categoryId, maxDepth)) {
+                descendants = stream.collect(Collectors.toList());
+            }
+            /* Пустой результат - либо лист, либо несуществующая категория. */
+            if (descendants.isEmpty() && !categoryRepository.existsById(categoryId)) {
+                throw categoryNotFound(categoryId);
+            }
+            return descendants;
+        });
+    }
+
+    public List<CategoryDto> getAncestors(final UUID categoryId) {
+        if (snapshotHolder.isEnabled()) {
+            return snapshotHolder.current().getAncestors(categoryId)
+                    .orElseThrow(() -> categoryNotFound(categoryId));
+        }
+        /* Путь всегда содержит саму категорию, поэтому пустой результат означает ее отсутствие. */
+        List<CategoryDto> ancestors = readOnlyTransactionTemplate.execute(status ->
+                categoryRepository.findAncestors(categoryId));
+        if (ancestors.isEmpty()) {
+            throw categoryNotFound(categoryId);
+        }
+        return ancestors;
     }
 
     public List<CategoryDto> getRootCategories() {
-        return categoryConverter.convertEntityListToDtoList(categoryRepository.findByParentIdIsNull());
+        if (snapshotHolder.isEnabled()) {
+            return snapshotHolder.current().getRootCategories();
+        }
+        return readOnlyTransactionTemplate.execute(status ->
+                categoryConverter.convertEntityListToDtoList(categoryRepository.findByParentIdIsNull()));
     }
 
     public Page<CategoryDto> getChildren(final UUID categoryId, final Integer page, final Integer size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        return categoryConverter.convertEntityPageToDtoPage(categoryRepository.findByParentId(categoryId, pageable));
+        if (snapshotHolder.isEnabled()) {
+            Page<CategoryDto> children = snapshotHolder.current().getChildren(categoryId, pageable);
+            return children.hasContent() ? children : null;
+        }
+        return readOnlyTransactionTemplate.execute(status ->
+                categoryConverter.convertEntityPageToDtoPage(categoryRepository.findByParentId(categoryId, pageable)));
     }
 
-    public void deleteCategory(final UUID categoryId) {
-        if (categoryRepository.existsById(categoryId)) {
-            categoryRepository.deleteById(categoryId);
+    /**
+     * Поддерево выбирается из 'category_closure' одним запросом, после чего обе таблицы очищаются
+     * одним запросом каждая: сначала связи, затем категории. Структура дерева блокируется эксклюзивно:
+     * иначе категория, созданная в поддереве конкурентно, не попала бы в выборку, была бы удалена каскадом,
+     * а ее единица осталась бы в счетчиках предков.
+     */
+    @Transactional
+    public CategoryDeleteResultDto deleteCategory(final UUID categoryId) {
+        long start = System.nanoTime();
+        categoryJdbcRepository.lockTreeStructure(true);
+        List<UUID> subtreeIds = categoryJdbcRepository.findSubtreeIds(categoryId);
+        if (subtreeIds.isEmpty()) {
+            return new CategoryDeleteResultDto(0, 0, 0, elapsedMillis(start));
         }
+        List<UUID> updatedIds = categoryJdbcRepository.updateAncestorCounts(categoryId, -1);
+        int closureRows = categoryJdbcRepository.deleteClosureRows(subtreeIds);
+        int categories = categoryJdbcRepository.deleteCategories(subtreeIds);
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                CategoryChangeType.DELETED, categoryId, subtreeIds, updatedIds));
+        return new CategoryDeleteResultDto(categories, closureRows, 1, elapsedMillis(start));
+    }
+
+    /**
+     * Каждая часть выбирается заново в своей транзакции, поэтому категории, перемещенные из поддерева
+     * или созданные в нем между частями, обрабатываются правильно.
+     */
+    public CategoryDeleteResultDto deleteCategory(final UUID categoryId, final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new BadRequestException("Chunk size should be positive.");
+        }
+        long start = System.nanoTime();
+        long categories = 0;
+        long closureRows = 0;
+        long chunks = 0;
+        while (true) {
+            CategoryDeleteResultDto chunk = transactionTemplate.execute(status -> deleteDeepestChunk(categoryId, chunkSize));
+            if (chunk.getCategories() == 0) {
+                break;
+            }
+            categories += chunk.getCategories();
+            closureRows += chunk.getClosureRows();
+            chunks++;
+        }
+        return new CategoryDeleteResultDto(categories, closureRows, chunks, elapsedMillis(start));
+    }
+
+    private CategoryDeleteResultDto deleteDeepestChunk(final UUID categoryId, final int chunkSize) {
+        categoryJdbcRepository.lockTreeStructure(true);
+        List<UUID> chunkIds = categoryJdbcRepository.findDeepestSubtreeIds(categoryId, chunkSize);
+        if (chunkIds.isEmpty()) {
+            return new CategoryDeleteResultDto();
+        }
+        List<UUID> updatedIds = categoryJdbcRepository.decrementCountsForRemoval(chunkIds);
+        int closureRows = categoryJdbcRepository.deleteClosureRows(chunkIds);
+        int categories = categoryJdbcRepository.deleteCategories(chunkIds);
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                CategoryChangeType.DELETED, categoryId, chunkIds, updatedIds));
+        return new CategoryDeleteResultDto(categories, closureRows, 1, 0);
     }
 
     private Category getCategoryById(final UUID categoryId) {
-        return categoryRepository.findById(categoryId).orElseThrow(
-                () -> new NotFoundException("Category with Id \"" + categoryId + "\" not found."));
+        return categoryRepository.findById(categoryId).orElseThrow(() -> categoryNotFound(categoryId));
+    }
+
+    private static long elapsedMillis(final long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static NotFoundException categoryNotFound(final UUID categoryId) {
+        return new NotFoundException("Category with Id \"" + categoryId + "\" not found.");
     }
 }
@@ -0,0 +1,260 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.representation.category.CategoryColumns;
+import com.task.product.catalog.representation.category.CategoryDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Неизменяемый снимок всего дерева категорий в памяти.
+ * <p>
+ * Узлы хранятся в порядке обхода в глубину (pre-order), поэтому поддерево любой категории
+ * занимает непрерывный диапазон [index, end) массива узлов.
+ * Дочерние элементы каждого узла упорядочены по имени так же, как их возвращает база данных
+ * (снимок строится из выборки, отсортированной по (name, id) на стороне базы).
+ * <p>
+ * Снимок безопасно читать из любого количества потоков без синхронизации.
+ */
+public final class CategoryTreeSnapshot {
+
+    private static final int[] NO_CHILDREN = new int[0];
+
+    private final Node[] nodes;
+
+    private final int[][] children;
+
+    private final int[] roots;
+
+    private final Map<UUID, Integer> indexById;
+
+    private CategoryTreeSnapshot(final Node[] nodes, final int[][] children, final int[] roots) {
+        this.nodes = nodes;
+        this.children = children;
+        this.roots = roots;
+        this.indexById = new HashMap<>(nodes.length * 4 / 3 + 1);
+        for (int i = 0; i < nodes.length; i++) {
+            indexById.put(nodes[i].id, i);
+        }
+    }
+
+    /**
+     * Строит снимок из плоского списка всех категорий.
+     *
+     * @param categoriesOrderedByName все категории, отсортированные по имени
+     * @return снимок дерева
+     */
+    public static CategoryTreeSnapshot build(final List<CategoryDto> categoriesOrderedByName) {
+        int size = categoriesOrderedByName.size();
+
+        List<CategoryDto> rootCategories = new ArrayList<>();
+        Map<UUID, List<CategoryDto>> childrenByParent = new HashMap<>();
+        for (CategoryDto category : categoriesOrderedByName) {
+            if (category.getParentId() == null) {
+                rootCategories.add(category);
+            } else {
+                childrenByParent.computeIfAbsent(category.getParentId(), it -> new ArrayList<>()).add(category);
+            }
+        }
+
+        /* Итеративный обход в глубину: дерево может быть сколь угодно глубоким. */
+        Node[] nodes = new Node[size];
+        int[] parentIndex = new int[size];
+        CategoryDto[] stack = new CategoryDto[size];
+        int[] stackParent = new int[size];
+        int top = 0;
+        for (int i = rootCategories.size() - 1; i >= 0; i--) {
+            stack[top] = rootCategories.get(i);
+            stackParent[top++] = -1;
+        }
+        int count = 0;
+        while (top > 0) {
+            CategoryDto category = stack[--top];
+            int parent = stackParent[top];
+            int index = count++;
+            nodes[index] = new Node(category, index, parent, parent < 0 ? 0 : nodes[parent].depth + 1);
+            parentIndex[index] = parent;
+
+            List<CategoryDto> categoryChildren = childrenByParent.get(category.getId());
+            if (categoryChildren != null) {
+                for (int i = categoryChildren.size() - 1; i >= 0; i--) {
+                    stack[top] = categoryChildren.get(i);
+                    stackParent[top++] = index;
+                }
+            }
+        }
+        if (count != size) {
+            throw new IllegalStateException("Category tree is inconsistent: " + (size - count) + " unreachable categories.");
+        }
+
+        /* Границы поддеревьев: обратный проход накапливает размеры поддеревьев в родителях. */
+        int[] subtreeSize = new int[size];
+        int[] childCount = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            subtreeSize[i] += 1;
+            nodes[i].end = i + subtreeSize[i];
+            nodes[i].childCount = childCount[i];
+            if (parentIndex[i] >= 0) {
+                subtreeSize[parentIndex[i]] += subtreeSize[i];
+                childCount[parentIndex[i]]++;
+            }
+        }
+
+        /* Прямой проход раскладывает детей в порядке pre-order, который совпадает с порядком по имени. */
+        int[][] children = new int[size][];
+        int[] filled = new int[size];
+        int[] roots = new int[rootCategories.size()];
+        int rootCount = 0;
+        for (int i = 0; i < size; i++) {
+            children[i] = childCount[i] == 0 ? NO_CHILDREN : new int[childCount[i]];
+            int parent = parentIndex[i];
+            if (parent < 0) {
+                roots[rootCount++] = i;
+            } else {
+                children[parent][filled[parent]++] = i;
+            }
+        }
+
+        return new CategoryTreeSnapshot(nodes, children, roots);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public Optional<CategoryDto> getCategory(final UUID categoryId) {
+        Integer index = indexById.get(categoryId);
+        return index == null ? Optional.empty() : Optional.of(nodes[index].toDto());
+    }
+
+    public List<CategoryDto> getCategories() {
+        List<CategoryDto> result = new ArrayList<>(nodes.length);
+        for (Node node : nodes) {
+            result.add(node.toDto());
+        }
+        return result;
+    }
+
+    /* Столбцы строятся при каждом вызове: снимок и так держит все категории, вторую копию хранить незачем. */
+    public CategoryColumns getColumns() {
+        CategoryColumns.Builder columns = new CategoryColumns.Builder();
+        for (Node node : nodes) {
+            columns.add(node.id, node.parentId, node.name, node.description, node.childCount, node.end - node.index - 1);
+        }
+        return columns.build();
+    }
+
+    public List<CategoryDto> getRootCategories() {
+        return toDtoList(roots, 0, roots.length);
+    }
+
+    /**
+     * Возвращает страницу прямых потомков категории.
+     * Для неизвестной категории возвращается пустая страница, как и при выборке из базы.
+     */
+    public Page<CategoryDto> getChildren(final UUID categoryId, final Pageable pageable) {
+        Integer index = indexById.get(categoryId);
+        int[] categoryChildren = index == null ? NO_CHILDREN : children[index];
+        long offset = pageable.getOffset();
+        if (offset >= categoryChildren.length) {
+            return new PageImpl<>(Collections.emptyList(), pageable, categoryChildren.length);
+        }
+        int from = (int) offset;
+        int to = Math.min(categoryChildren.length, from + pageable.getPageSize());
+        return new PageImpl<>(toDtoList(categoryChildren, from, to), pageable, categoryChildren.length);
+    }
+
+    /**
+     * Возвращает потомков категории без самой категории.
+     *
+     * @param maxDepth максимальная глубина относительно категории, null - без ограничения
+     * @return список категорий или пустой Optional, если категории нет в снимке
+     */
+    public Optional<List<CategoryDto>> getDescendants(final UUID categoryId, final Integer maxDepth) {
+        Integer index = indexById.get(categoryId);
+        if (index == null) {
+            return Optional.empty();
+        }
+        int end = nodes[index].end;
+        List<CategoryDto> result = new ArrayList<>(maxDepth == null ? end - index - 1 : 16);
+        int depthLimit = maxDepth == null ? Integer.MAX_VALUE : nodes[index].depth + maxDepth;
+        for (int i = index + 1; i < end; i++) {
+            if (nodes[i].depth <= depthLimit) {
+                result.add(nodes[i].toDto());
+            }
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Возвращает путь от корня до категории включительно.
+     *
+     * @return список категорий или пустой Optional, если категории нет в снимке
+     */
+    public Optional<List<CategoryDto>> getAncestors(final UUID categoryId) {
+        Integer index = indexById.get(categoryId);
+        if (index == null) {
+            return Optional.empty();
+        }
+        CategoryDto[] path = new CategoryDto[nodes[index].depth + 1];
+        for (int i = index; i >= 0; i = nodes[i].parent) {
+            path[nodes[i].depth] = nodes[i].toDto();
+        }
+        return Optional.of(Arrays.asList(path));
+    }
+
+    private List<CategoryDto> toDtoList(final int[] indexes, final int from, final int to) {
+        List<CategoryDto> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(nodes[indexes[i]].toDto());
+        }
+        return result;
+    }
+
+    private static final class Node {
+
+        private final UUID id;
+
+        private final String name;
+
+        private final String description;
+
+        private final UUID parentId;
+
+        /* Собственный индекс в порядке pre-order. */
+        private final int index;
+
+        private final int parent;
+
+        private final int depth;
+
+        /* Индекс, следующий за последним узлом поддерева. Заполняется один раз при построении. */
+        private int end;
+
+        /* Количество детей. Заполняется один раз при построении, количество потомков следует из границ поддерева. */
+        private int childCount;
+
+        private Node(final CategoryDto category, final int index, final int parent, final int depth) {
+            this.id = category.getId();
+            this.name = category.getName();
+            this.description = category.getDescription();
+            this.parentId = category.getParentId();
+            this.index = index;
+            this.parent = parent;
+            this.depth = depth;
+        }
+
+        private CategoryDto toDto() {
+            return new CategoryDto(id, name, description, parentId, childCount, end - index - 1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.repository.category.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Хранит актуальный {@link CategoryTreeSnapshot} для чтения дерева категорий без обращения к базе.
+ * <p>
+ * Снимок перестраивается целиком после каждой успешно завершенной транзакции записи
+ * и атомарно подменяется, так что читатели всегда видят согласованное дерево.
+ * Включается свойством 'catalog.category.snapshot.enabled'.
+ */
+@Component
+@Slf4j
+public class CategoryTreeSnapshotHolder {
+
+    private final CategoryRepository categoryRepository;
+
+    private final boolean enabled;
+
+    private final AtomicReference<CategoryTreeSnapshot> snapshot = new AtomicReference<>();
+
+    public CategoryTreeSnapshotHolder(
+            final CategoryRepository categoryRepository,
+            @Value("${catalog.category.snapshot.enabled:false}") final boolean enabled
+    ) {
+        this.categoryRepository = categoryRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CategoryTreeSnapshot current() {
+        CategoryTreeSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot.get();
+            return current != null ? current : reload();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            current();
+        }
+    }
+
+    /*
+     * Слушатель вызывается после коммита, поэтому чтение снимка идет в отдельной транзакции.
+     * Транзакция не помечена readOnly: такие транзакции уходят на реплики, которые могут еще не содержать изменение.
+     * Новый снимок подменяется раньше смены версии каталога, иначе новый ETag достался бы старому снимку.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(CategoryVersionTracker.BEFORE_VERSION_CHANGE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onCategoryChanged(final CategoryChangedEvent event) {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    /* Перечитывает снимок после изменений, сделанных другим экземпляром сервиса. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    private synchronized CategoryTreeSnapshot reload() {
+        long start = System.nanoTime();
+        CategoryTreeSnapshot reloaded = CategoryTreeSnapshot.build(categoryRepository.findAllDtoOrderByName());
+        snapshot.set(reloaded);
+        log.info("Category tree snapshot reloaded: {} categories in {} ms",
+                reloaded.size(), (System.nanoTime() - start) / 1_000_000);
+        return reloaded;
+    }
+}
@@ -0,0 +1,122 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.repository.category.CategoryVersionJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версия каталога категорий для ETag эндпоинтов чтения.
+ * <p>
+ * Версия хранится в базе ('category_version') и увеличивается в транзакции каждой операции записи,
+ * поэтому она одна для всех экземпляров сервиса и не повторяется после рестарта.
+ * Здесь хранится ее копия, чтобы чтения не ходили за версией в базу. Копия обновляется:
+ * 1) после коммита собственной записи - последним из слушателей, когда кэш уже инвалидирован, а снимок подменен
+ * 2) периодическим опросом (catalog.http.cache.version-poll-interval) - для записей других экземпляров.
+ * Перед тем как принять чужую версию, экземпляр сбрасывает кэш второго уровня и перечитывает снимок,
+ * поэтому новый ETag никогда не достается данным старше него.
+ * <p>
+ * При чтении с реплик ответ с новой версией еще может быть собран из отстающей реплики, поэтому
+ * в течение окна read-your-writes после смены версии ETag помечается как предварительный.
+ * По истечении окна метка снимается, и такие ответы перестают совпадать по ETag.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class CategoryVersionTracker {
+
+    /* Порядок слушателей после коммита, которые должны отработать до смены версии (кэш, снимок). */
+    public static final int BEFORE_VERSION_CHANGE = 0;
+
+    private static final long UNKNOWN = -1;
+
+    private final CategoryVersionJdbcRepository versionRepository;
+
+    private final CategoryTreeSnapshotHolder snapshotHolder;
+
+    private final CategoryCacheInvalidator cacheInvalidator;
+
+    /* 0 - чтение с реплик выключено. */
+    private final long replicaStaleWindowNanos;
+
+    private final AtomicLong version = new AtomicLong(UNKNOWN);
+
+    private volatile long changedAtNanos;
+
+    public CategoryVersionTracker(
+            final CategoryVersionJdbcRepository versionRepository,
+            final CategoryTreeSnapshotHolder snapshotHolder,
+            final CategoryCacheInvalidator cacheInvalidator,
+            @Value("${catalog.datasource.replicas.urls:}") final String[] replicaUrls,
+            @Value("${catalog.datasource.replicas.read-your-writes-window:10s}") final Duration readYourWritesWindow
+    ) {
+        this.versionRepository = versionRepository;
+        this.snapshotHolder = snapshotHolder;
+        this.cacheInvalidator = cacheInvalidator;
+        this.replicaStaleWindowNanos = replicaUrls.length == 0 ? 0 : readYourWritesWindow.toNanos();
+        this.changedAtNanos = System.nanoTime() - replicaStaleWindowNanos;
+    }
+
+    public String currentVersion() {
+        long current = version.get();
+        if (current == UNKNOWN) {
+            current = refresh();
+        }
+        boolean provisional = System.nanoTime() - changedAtNanos < replicaStaleWindowNanos;
+        return provisional ? current + "-r" : Long.toString(current);
+    }
+
+    /*
+     * Версия увеличивается непосредственно перед коммитом: строка версии заблокирована до конца транзакции,
+     * и конкурентные записи ждут друг друга как можно меньше.
+     * Новая версия принимается после коммита синхронизацией с наименьшим приоритетом - после слушателей AFTER_COMMIT.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCategoryChanged(final CategoryChangedEvent event) {
+        long committed = versionRepository.increment();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                advanceTo(committed);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.http.cache.version-poll-interval:PT1S}")
+    public void pollVersion() {
+        refresh();
+    }
+
+    /* Версия читается раньше данных: перечитанные после нее кэш и снимок не старше нее. */
+    private synchronized long refresh() {
+        long current = versionRepository.current();
+        if (current > version.get()) {
+            log.debug("Category catalog version changed to {} outside this instance, refreshing", current);
+            cacheInvalidator.evictAll();
+            snapshotHolder.refresh();
+            advanceTo(current);
+        }
+        return version.get();
+    }
+
+    /* Без блокировки: коммит не должен ждать перечитывания снимка опросом. */
+    private void advanceTo(final long committed) {
+        long known = version.get();
+        while (committed > known) {
+            if (version.compareAndSet(known, committed)) {
+                changedAtNanos = System.nanoTime();
+                return;
+            }
+            known = version.get();
+        }
+    }
+}
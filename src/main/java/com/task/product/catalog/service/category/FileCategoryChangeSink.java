@@ -0,0 +1,59 @@
+package com.task.product.catalog.service.category;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.product.catalog.representation.category.CategoryChangeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Дописывает изменения в файл, по одному JSON-объекту на строку (NDJSON).
+ * Пакет записывается целиком и сбрасывается на диск до коммита публикации.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.category.changes.sink", havingValue = "file")
+public class FileCategoryChangeSink implements CategoryChangeSink {
+
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+
+    public FileCategoryChangeSink(
+            final ObjectMapper objectMapper,
+            @Value("${catalog.category.changes.file:category-changes.ndjson}") final String file
+    ) {
+        this.objectMapper = objectMapper;
+        this.file = Paths.get(file);
+    }
+
+    @Override
+    public void publish(final List<CategoryChangeDto> changes) {
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (CategoryChangeDto change : changes) {
+                lines.write(objectMapper.writeValueAsBytes(change));
+                lines.write('\n');
+            }
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.representation.category.CategoryChangeDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Передает изменения слушателям {@link CategoryChangesPublishedEvent} внутри процесса.
+ * Слушатели вызываются синхронно в транзакции публикации.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.category.changes.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessCategoryChangeSink implements CategoryChangeSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InProcessCategoryChangeSink(final ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void publish(final List<CategoryChangeDto> changes) {
+        eventPublisher.publishEvent(new CategoryChangesPublishedEvent(changes));
+    }
+}
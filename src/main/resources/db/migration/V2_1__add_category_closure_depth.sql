@@ -0,0 +1,23 @@
+ALTER TABLE category_closure ADD COLUMN depth INTEGER;
+
+-- Глубина связи - разница в количестве предков у потомка и у предка.
+-- Количество предков каждой категории считается одной группировкой, а не подзапросом на каждую строку.
+WITH ancestor_count AS (
+    SELECT descendant_id, count(*) AS ancestors
+    FROM   category_closure
+    GROUP  BY descendant_id
+)
+UPDATE category_closure cc
+SET    depth = d.ancestors - a.ancestors
+FROM   ancestor_count d,
+       ancestor_count a
+WHERE  d.descendant_id = cc.descendant_id
+       AND a.descendant_id = cc.ancestor_id;
+
+ALTER TABLE category_closure ALTER COLUMN depth SET NOT NULL;
+
+-- Поддерево ограниченной глубины.
+CREATE INDEX category_closure_ancestor_depth_idx ON category_closure (ancestor_id, depth);
+
+-- Упорядоченный путь от корня до категории (breadcrumbs).
+CREATE INDEX category_closure_descendant_depth_idx ON category_closure (descendant_id, depth);
@@ -0,0 +1,9 @@
+-- Дочерние категории с сортировкой по имени (findByParentId), а также поиск строк
+-- по parent_id при каскадном удалении через category_parent_fk.
+CREATE INDEX category_parent_id_name_idx ON category (parent_id, name);
+
+-- Корневые категории (findByParentIdIsNull).
+CREATE INDEX category_root_idx ON category (name) WHERE parent_id IS NULL;
+
+-- Поиск по category_closure.descendant_id (saveDescendant и каскад category_closure_descendant_fk)
+-- обслуживает индекс category_closure_descendant_depth_idx из V2_1.
@@ -0,0 +1,11 @@
+-- Поиск категорий (CategoryJdbcRepository.searchCategories).
+-- Конфигурация 'simple' не применяет стемминг: названия категорий бывают на разных языках.
+-- Запросы должны повторять выражения индексов дословно, иначе планировщик их не использует.
+
+-- Подсказки при вводе: префиксный поиск по словам названия ('phon:*').
+CREATE INDEX category_name_search_idx ON category
+    USING gin (to_tsvector('simple', coalesce(name, '')));
+
+-- Полнотекстовый поиск по названию и описанию.
+CREATE INDEX category_text_search_idx ON category
+    USING gin (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, '')));
@@ -0,0 +1,16 @@
+-- Количество прямых детей и всех потомков категории.
+-- Поддерживаются инкрементально операциями записи (CategoryJdbcRepository),
+-- расхождение с 'category_closure' проверяет CategoryCountConsistencyJob.
+ALTER TABLE category ADD COLUMN child_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE category ADD COLUMN descendant_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE category c
+SET    child_count = counts.children,
+       descendant_count = counts.descendants
+FROM   (SELECT ancestor_id,
+               count(*) FILTER (WHERE depth = 1) AS children,
+               count(*) FILTER (WHERE depth > 0) AS descendants
+        FROM   category_closure
+        GROUP  BY ancestor_id) counts
+WHERE  c.id = counts.ancestor_id
+       AND counts.descendants > 0;
@@ -0,0 +1,21 @@
+-- Transactional outbox изменений дерева категорий.
+-- Строка пишется в транзакции операции записи (CategoryChangeOutbox), позиция в ленте
+-- назначается при публикации (CategoryChangePublisher): позиции растут в порядке коммитов публикатора,
+-- поэтому потребитель ленты, читающий по 'position > since', не пропускает поздно закоммиченные изменения.
+CREATE TABLE category_change (
+  id BIGSERIAL PRIMARY KEY,
+  position BIGINT,
+  type VARCHAR(32) NOT NULL,
+  category_id UUID,
+  affected_ids UUID[] NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  published_at TIMESTAMPTZ
+);
+
+CREATE SEQUENCE category_change_position_seq;
+
+-- Лента изменений (GET /categories/changes/?since=).
+CREATE UNIQUE INDEX category_change_position_idx ON category_change (position);
+
+-- Очередь неопубликованных изменений.
+CREATE INDEX category_change_pending_idx ON category_change (id) WHERE position IS NULL;
@@ -0,0 +1,6 @@
+-- Путь от корня до категории (breadcrumbs) читается только из индекса: обратный index-only scan
+-- по (descendant_id, depth) сразу отдает ancestor_id в порядке depth DESC, без обращения к таблице и сортировки.
+-- PostgreSQL 10 не поддерживает INCLUDE, поэтому ancestor_id - последний столбец ключа.
+DROP INDEX category_closure_descendant_depth_idx;
+
+CREATE INDEX category_closure_descendant_depth_idx ON category_closure (descendant_id, depth, ancestor_id);
@@ -0,0 +1,8 @@
+-- Версия каталога категорий для ETag: общая для всех экземпляров сервиса.
+-- Одна строка, увеличивается в транзакции каждой операции записи.
+CREATE TABLE category_version (
+  id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+  version BIGINT NOT NULL
+);
+
+INSERT INTO category_version (id, version) VALUES (TRUE, 0);
@@ -0,0 +1,5 @@
+-- Подсказки при вводе для коротких префиксов ('a:*'). Такому префиксу соответствуют сотни тысяч категорий,
+-- и GIN-индекс из V2_3 отдает их все на сортировку по названию ради первой страницы.
+-- По этому индексу планировщик идет по категориям в порядке названия, проверяет условие поиска
+-- и останавливается на LIMIT. Для редких префиксов он по-прежнему выбирает GIN-индекс и сортирует немногие строки.
+CREATE INDEX category_name_id_idx ON category (name, id);
@@ -0,0 +1,66 @@
+package com.task.product.catalog;
+
+import com.task.product.catalog.service.category.CategoryCacheInvalidator;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Контекст приложения без web-слоя на embedded Postgres.
+ * <p>
+ * База и контекст общие для всех наследников, перед каждым тестом таблицы категорий очищаются.
+ * Изменения из outbox тесты публикуют сами: расписание публикатора отодвинуто на час.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "catalog.category.changes.publish-interval=PT1H",
+        "logging.level.root=WARN"
+})
+public abstract class EmbeddedPostgresTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CategoryCacheInvalidator cacheInvalidator;
+
+    @DynamicPropertySource
+    static void datasource(final DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @BeforeEach
+    void cleanCategories() {
+        inTransaction().executeWithoutResult(status ->
+                jdbcTemplate.execute("TRUNCATE category, category_closure, category_change"));
+        cacheInvalidator.evictAll();
+    }
+
+    /* Автокоммит в пуле выключен, поэтому запись через jdbcTemplate коммитится только в транзакции. */
+    protected TransactionTemplate inTransaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
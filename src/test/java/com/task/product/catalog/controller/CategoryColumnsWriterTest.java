@@ -0,0 +1,84 @@
+package com.task.product.catalog.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.task.product.catalog.representation.category.CategoryColumns;
+import com.task.product.catalog.representation.category.CategoryDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CategoryColumnsWriterTest {
+
+    private final CategoryDto electronics = category("Electronics", null, null);
+    private final CategoryDto phones = category("Смартфоны \"и\" планшеты", "Телефоны", electronics.getId());
+    private final CategoryDto android = category("Android", "", phones.getId());
+
+    /* Ребенок раньше родителя, как в произвольном порядке строк таблицы. */
+    private final List<CategoryDto> categories = Arrays.asList(android, electronics, phones);
+
+    @Test
+    void writesSameJsonAsObjectMapper() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        JsonNode written = objectMapper.readTree(write(columns(categories), objectMapper));
+
+        assertThat(written).isEqualTo(objectMapper.valueToTree(categories));
+    }
+
+    @Test
+    void writesSameSmileAsObjectMapper() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+
+        JsonNode written = objectMapper.readTree(write(columns(categories), objectMapper));
+
+        assertThat(written).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(categories)));
+    }
+
+    @Test
+    void linksParentsByRowIndex() {
+        CategoryColumns columns = columns(categories);
+
+        assertThat(columns.getParent(1)).isEqualTo(CategoryColumns.NO_PARENT);
+        assertThat(columns.getParent(0)).isEqualTo(2);
+        assertThat(columns.getParent(2)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsMissingParent() {
+        CategoryColumns.Builder builder = new CategoryColumns.Builder()
+                .add(UUID.randomUUID(), UUID.randomUUID(), "Orphan", null, 0, 0);
+
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static CategoryColumns columns(final List<CategoryDto> categories) {
+        CategoryColumns.Builder builder = new CategoryColumns.Builder();
+        for (CategoryDto category : categories) {
+            builder.add(category.getId(), category.getParentId(), category.getName(), category.getDescription(),
+                    category.getChildCount(), category.getDescendantCount());
+        }
+        return builder.build();
+    }
+
+    private static byte[] write(final CategoryColumns columns, final ObjectMapper objectMapper) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            CategoryColumnsWriter.write(columns, generator);
+        }
+        return output.toByteArray();
+    }
+
+    private static CategoryDto category(final String name, final String description, final UUID parentId) {
+        return new CategoryDto(UUID.randomUUID(), name, description, parentId, 0, 0);
+    }
+}
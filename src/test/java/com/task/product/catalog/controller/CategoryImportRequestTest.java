@@ -0,0 +1,81 @@
+package com.task.product.catalog.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.product.catalog.representation.category.CategoryImportDto;
+import com.task.product.catalog.representation.category.CategoryImportResultDto;
+import com.task.product.catalog.service.BadRequestException;
+import com.task.product.catalog.service.category.CategoryImportService;
+import com.task.product.catalog.service.category.CategoryService;
+import com.task.product.catalog.service.category.CategoryVersionTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CategoryImportRequestTest {
+
+    private static final String CATEGORY = "{\"id\":\"" + UUID.randomUUID() + "\",\"name\":\"Electronics\"}";
+
+    private final CategoryImportService importService = mock(CategoryImportService.class);
+
+    private final CategoryController controller = new CategoryController(mock(CategoryService.class), importService,
+            new ObjectMapper(), new MappingJackson2SmileHttpMessageConverter(),
+            new MappingJackson2CborHttpMessageConverter(), mock(CategoryVersionTracker.class), Duration.ZERO);
+
+    /* Импорт, как и настоящий, читает поток до конца. */
+    @SuppressWarnings("unchecked")
+    CategoryImportRequestTest() {
+        when(importService.importCategories(any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<CategoryImportDto> categories = invocation.getArgument(0);
+            long count = 0;
+            while (categories.hasNext()) {
+                categories.next();
+                count++;
+            }
+            return new CategoryImportResultDto(count, count, 0, 0);
+        });
+    }
+
+    @Test
+    void importsWellFormedArray() throws IOException {
+        assertThat(controller.importCategories(request("[" + CATEGORY + "," + CATEGORY + "]")).getBody())
+                .extracting(CategoryImportResultDto::getCategories)
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void rejectsTruncatedArray() {
+        assertThatThrownBy(() -> controller.importCategories(request("[" + CATEGORY + ",{\"id\":")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsInvalidNdjsonLine() {
+        assertThatThrownBy(() -> controller.importCategories(request(CATEGORY + "\n{\"name\": Phones}\n")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsWrongFieldType() {
+        assertThatThrownBy(() -> controller.importCategories(request("[{\"id\":\"not-a-uuid\",\"name\":\"A\"}]")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static MockHttpServletRequest request(final String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/categories/import/");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,55 @@
+package com.task.product.catalog.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.service.category.CategoryImportService;
+import com.task.product.catalog.service.category.CategoryService;
+import com.task.product.catalog.service.category.CategoryVersionTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class CategoryNdjsonStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CategoryDto electronics = new CategoryDto(UUID.randomUUID(), "Electronics", null, null, 1, 1);
+    private final CategoryDto phones = new CategoryDto(UUID.randomUUID(), "Phones", "", electronics.getId(), 0, 0);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesOneCategoryPerLineWithoutSeparatorSpaces() throws IOException {
+        CategoryService categoryService = mock(CategoryService.class);
+        doAnswer(invocation -> {
+            Consumer<CategoryDto> consumer = invocation.getArgument(0);
+            consumer.accept(electronics);
+            consumer.accept(phones);
+            return null;
+        }).when(categoryService).streamCategories(any(Consumer.class));
+        CategoryController controller = new CategoryController(categoryService, mock(CategoryImportService.class),
+                objectMapper, new MappingJackson2SmileHttpMessageConverter(),
+                new MappingJackson2CborHttpMessageConverter(), mock(CategoryVersionTracker.class), Duration.ZERO);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        controller.streamCategories().getBody().writeTo(output);
+
+        String body = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        List<String> lines = Arrays.asList(body.split("\n", -1));
+        assertThat(lines).containsExactly(
+                objectMapper.writeValueAsString(electronics), objectMapper.writeValueAsString(phones), "");
+    }
+}
@@ -0,0 +1,83 @@
+package com.task.product.catalog.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.task.product.catalog.representation.category.CategoryDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTreeJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CategoryDto electronics = category("Electronics", null);
+    private final CategoryDto books = category("Books", null);
+    private final CategoryDto phones = category("Phones", electronics.getId());
+    private final CategoryDto laptops = category("Laptops", electronics.getId());
+    private final CategoryDto android = category("Android", phones.getId());
+
+    @Test
+    void nestsChildrenUnderParentsInListOrder() throws IOException {
+        JsonNode tree = objectMapper.readTree(write(Arrays.asList(android, books, electronics, laptops, phones)));
+
+        assertThat(tree).hasSize(2);
+        assertThat(tree.get(0).get("name").asText()).isEqualTo("Books");
+        JsonNode electronicsNode = tree.get(1);
+        assertThat(electronicsNode.get("id").asText()).isEqualTo(electronics.getId().toString());
+        assertThat(electronicsNode.get("parentId").isNull()).isTrue();
+        assertThat(electronicsNode.get("children").get(0).get("name").asText()).isEqualTo("Laptops");
+        assertThat(electronicsNode.get("children").get(1).get("children").get(0).get("name").asText())
+                .isEqualTo("Android");
+    }
+
+    @Test
+    void treatsCategoriesWithoutParentInListAsRoots() throws IOException {
+        JsonNode tree = objectMapper.readTree(write(Arrays.asList(android, laptops, phones)));
+
+        assertThat(tree).hasSize(2);
+        assertThat(tree.get(0).get("name").asText()).isEqualTo("Laptops");
+        assertThat(tree.get(1).get("children").get(0).get("name").asText()).isEqualTo("Android");
+    }
+
+    /* Порядок братьев задает база (collation), писатель его не меняет. */
+    @Test
+    void keepsSiblingOrderOfList() throws IOException {
+        JsonNode tree = objectMapper.readTree(write(Arrays.asList(electronics, phones, laptops)));
+
+        assertThat(tree.get(0).get("children").get(0).get("name").asText()).isEqualTo("Phones");
+        assertThat(tree.get(0).get("children").get(1).get("name").asText()).isEqualTo("Laptops");
+    }
+
+    @Test
+    void writesDeepChainWithoutRecursion() throws IOException {
+        List<CategoryDto> chain = new ArrayList<>();
+        UUID parentId = null;
+        for (int i = 0; i < 100000; i++) {
+            CategoryDto category = category("Category " + i, parentId);
+            chain.add(category);
+            parentId = category.getId();
+        }
+        assertThat(write(chain)).startsWith("[{\"id\":\"" + chain.get(0).getId() + "\"");
+    }
+
+    private String write(final List<CategoryDto> categories) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            CategoryTreeJsonWriter.write(categories, generator);
+        }
+        return writer.toString();
+    }
+
+    private static CategoryDto category(final String name, final UUID parentId) {
+        return new CategoryDto(UUID.randomUUID(), name, name + " description", parentId);
+    }
+}
@@ -0,0 +1,34 @@
+package com.task.product.catalog.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WireFormatTest {
+
+    @Test
+    void prefersFormatWithHigherQuality() {
+        assertThat(WireFormat.select("application/json, application/cbor;q=0.1")).isEqualTo(WireFormat.JSON);
+        assertThat(WireFormat.eTagSuffix("application/json, application/cbor;q=0.1")).isEmpty();
+
+        assertThat(WireFormat.select("application/json;q=0.5, application/cbor")).isEqualTo(WireFormat.CBOR);
+        assertThat(WireFormat.eTagSuffix("application/json;q=0.5, application/cbor")).isEqualTo("-cbor");
+    }
+
+    @Test
+    void prefersSpecificTypeOverWildcard() {
+        assertThat(WireFormat.select("*/*;q=0.8, application/x-jackson-smile;q=0.8"))
+                .isEqualTo(WireFormat.SMILE);
+        assertThat(WireFormat.eTagSuffix("*/*;q=0.8, application/x-jackson-smile;q=0.8")).isEqualTo("-smile");
+    }
+
+    @Test
+    void fallsBackToJson() {
+        assertThat(WireFormat.select(null)).isEqualTo(WireFormat.JSON);
+        assertThat(WireFormat.select("*/*")).isEqualTo(WireFormat.JSON);
+        assertThat(WireFormat.select("application/*")).isEqualTo(WireFormat.JSON);
+        assertThat(WireFormat.select("text/html")).isEqualTo(WireFormat.JSON);
+        assertThat(WireFormat.select("not a media type")).isEqualTo(WireFormat.JSON);
+        assertThat(WireFormat.eTagSuffix("*/*")).isEmpty();
+    }
+}
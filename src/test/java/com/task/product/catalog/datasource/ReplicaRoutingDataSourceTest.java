@@ -0,0 +1,118 @@
+package com.task.product.catalog.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация на двух локальных Postgres: первый - основная база, второй - реплика.
+ * Репликации между ними нет, сервер определяется по порту.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedPostgres primaryPostgres;
+
+    private EmbeddedPostgres replicaPostgres;
+
+    private boolean replicaStopped;
+
+    private HikariDataSource primaryPool;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private ReplicaHealthChecker healthChecker;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primaryPostgres = EmbeddedPostgres.start();
+        replicaPostgres = EmbeddedPostgres.start();
+        primaryPool = pool(primaryPostgres);
+        routingDataSource = new ReplicaRoutingDataSource(primaryPool,
+                Collections.singletonList(new Replica("replica-1", pool(replicaPostgres))),
+                ReplicaBalancing.ROUND_ROBIN);
+        healthChecker = new ReplicaHealthChecker(
+                primaryPool, routingDataSource, Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        routingDataSource.close();
+        primaryPool.close();
+        primaryPostgres.close();
+        if (!replicaStopped) {
+            replicaPostgres.close();
+        }
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToReplica() {
+        assertThat(serverPort(readOnly)).isEqualTo(replicaPostgres.getPort());
+        assertThat(serverPort(readWrite)).isEqualTo(primaryPostgres.getPort());
+        assertThat(jdbcTemplate.queryForObject("SELECT current_setting('port')::int", Integer.class))
+                .isEqualTo(primaryPostgres.getPort());
+    }
+
+    @Test
+    void readsOwnWritesFromPrimary() {
+        ReplicaRoutingContext.pinToPrimary();
+        try {
+            assertThat(serverPort(readOnly)).isEqualTo(primaryPostgres.getPort());
+        } finally {
+            ReplicaRoutingContext.clear();
+        }
+        assertThat(serverPort(readOnly)).isEqualTo(replicaPostgres.getPort());
+    }
+
+    @Test
+    void ejectsUnavailableReplica() throws IOException {
+        healthChecker.checkReplicas();
+        assertThat(routingDataSource.getReplicas().get(0).isHealthy()).isTrue();
+
+        replicaPostgres.close();
+        replicaStopped = true;
+        routingDataSource.getReplicas().get(0).getDataSource().getHikariPoolMXBean().softEvictConnections();
+        healthChecker.checkReplicas();
+
+        assertThat(routingDataSource.getReplicas().get(0).isHealthy()).isFalse();
+        assertThat(serverPort(readOnly)).isEqualTo(primaryPostgres.getPort());
+    }
+
+    private int serverPort(final TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT current_setting('port')::int", Integer.class));
+    }
+
+    private static HikariDataSource pool(final EmbeddedPostgres postgres) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(postgres.getJdbcUrl("postgres", "postgres"));
+        pool.setConnectionTimeout(250);
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+}
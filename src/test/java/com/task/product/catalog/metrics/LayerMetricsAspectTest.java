@@ -0,0 +1,47 @@
+package com.task.product.catalog.metrics;
+
+import com.task.product.catalog.EmbeddedPostgresTest;
+import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.service.category.CategoryService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LayerMetricsAspectTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void recordsRowsOfListAndColumns() {
+        UUID electronics = categoryService.createCategory(new CategoryCreateDto("Electronics", null, null)).getId();
+        categoryService.createCategory(new CategoryCreateDto("Phones", null, electronics));
+        DistributionSummary categories = rows("getCategories");
+        DistributionSummary columns = rows("getCategoryColumns");
+        double categoriesBefore = categories.totalAmount();
+        double columnsBefore = columns.totalAmount();
+
+        categoryService.getCategories();
+        categoryService.getCategoryColumns();
+
+        assertThat(categories.totalAmount() - categoriesBefore).isEqualTo(2);
+        assertThat(columns.totalAmount() - columnsBefore).isEqualTo(2);
+    }
+
+    /* Регистрация возвращает уже существующий счетчик, если аспект успел его создать. */
+    private DistributionSummary rows(final String method) {
+        return DistributionSummary.builder("catalog.service.rows")
+                .baseUnit("rows")
+                .tag("service", "CategoryServiceImpl")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.task.product.catalog.metrics;
+
+import com.task.product.catalog.EmbeddedPostgresTest;
+import com.task.product.catalog.repository.category.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCountingDataSourceTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void countsHibernateAndJdbcTemplateQueries() {
+        QueryCountingDataSource.reset();
+
+        categoryRepository.count();
+        jdbcTemplate.queryForObject("SELECT count(*) FROM category_closure", Long.class);
+        inTransaction().executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate("DELETE FROM category_change WHERE id = ?",
+                        Arrays.asList(new Object[]{1L}, new Object[]{2L})));
+
+        assertThat(QueryCountingDataSource.count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,180 @@
+package com.task.product.catalog.repository.category;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет планы выполнения основных запросов к схеме категорий на 100 000 строк.
+ * <p>
+ * Запросы повторяют SQL, который генерирует {@link CategoryRepository}.
+ * Тест падает, если после изменения схемы или миграций какой-то из них перестал использовать индекс.
+ */
+class CategorySchemaQueryPlanTest {
+
+    private static final String ROOT = "md5('root1')::uuid";
+
+    private static final String CHILD = "md5('child1')::uuid";
+
+    private static EmbeddedPostgres postgres;
+
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        /* 100 корневых категорий по 1000 дочерних у каждой. */
+        execute("" +
+                "INSERT INTO category (id, name, description, parent_id) " +
+                "SELECT md5('root' || i)::uuid, 'root ' || i, NULL, NULL " +
+                "FROM   generate_series(1, 100) i");
+        execute("" +
+                "INSERT INTO category (id, name, description, parent_id) " +
+                "SELECT md5('child' || i)::uuid, 'child ' || i, NULL, md5('root' || (i % 100 + 1))::uuid " +
+                "FROM   generate_series(1, 100000) i");
+        execute("" +
+                "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                "SELECT id, id, 0 FROM category " +
+                "UNION ALL " +
+                "SELECT parent_id, id, 1 FROM category WHERE parent_id IS NOT NULL");
+        /*
+         * Карта видимости заполнена, как после autovacuum: иначе index-only scan не дешевле обычного.
+         * Отдельный VACUUM: VACUUM ANALYZE сразу после вставки в PostgreSQL 10 не отмечает страницы видимыми.
+         */
+        execute("VACUUM");
+        execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void childrenPageUsesParentNameIndexWithoutSort() throws SQLException {
+        String plan = explain("" +
+                "SELECT * FROM category WHERE parent_id = " + ROOT + " ORDER BY name ASC LIMIT 10");
+        assertThat(plan).contains("category_parent_id_name_idx").doesNotContain("Seq Scan").doesNotContain("Sort");
+    }
+
+    @Test
+    void childrenCountUsesParentIndex() throws SQLException {
+        String plan = explain("SELECT count(id) FROM category WHERE parent_id = " + ROOT);
+        assertThat(plan).contains("category_parent_id_name_idx").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void rootCategoriesUsePartialIndex() throws SQLException {
+        String plan = explain("SELECT * FROM category WHERE parent_id IS NULL");
+        assertThat(plan).contains("category_root_idx").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void closureLookupByDescendantUsesIndex() throws SQLException {
+        String plan = explain("SELECT ancestor_id, depth + 1 FROM category_closure WHERE descendant_id = " + CHILD);
+        assertThat(plan).contains("category_closure_descendant_depth_idx").doesNotContain("Seq Scan");
+    }
+
+    /* Поиск по ancestor_id может обслужить и первичный ключ, важно лишь отсутствие полного сканирования. */
+    @Test
+    void boundedDescendantsUseAncestorIndex() throws SQLException {
+        String plan = explain("" +
+                "SELECT descendant_id FROM category_closure " +
+                "WHERE ancestor_id = " + ROOT + " AND depth BETWEEN 1 AND 2");
+        assertThat(plan).containsPattern("Index (Only )?Scan").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void ancestorPathUsesDescendantDepthIndexWithoutSort() throws SQLException {
+        String plan = explain("" +
+                "SELECT ancestor_id FROM category_closure " +
+                "WHERE descendant_id = " + CHILD + " ORDER BY depth DESC");
+        assertThat(plan).contains("Index Only Scan Backward using category_closure_descendant_depth_idx")
+                .doesNotContain("Seq Scan")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void deepestSubtreeChunkUsesAncestorDepthIndexWithoutSort() throws SQLException {
+        String plan = explain("" +
+                "SELECT descendant_id FROM category_closure " +
+                "WHERE ancestor_id = " + ROOT + " ORDER BY depth DESC LIMIT 10");
+        assertThat(plan).contains("category_closure_ancestor_depth_idx")
+                .doesNotContain("Seq Scan")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void namePrefixSearchUsesNameSearchIndex() throws SQLException {
+        String plan = explain("" +
+                "SELECT c.id FROM category c " +
+                "WHERE to_tsvector('simple', coalesce(c.name, '')) @@ to_tsquery('simple', 'root:*')");
+        assertThat(plan).contains("category_name_search_idx").doesNotContain("Seq Scan");
+    }
+
+    /* 'child:*' соответствует почти всем категориям: id первой страницы читаются из индекса названий, без сортировки. */
+    @Test
+    void commonNamePrefixSearchPageUsesNameIndexWithoutSort() throws SQLException {
+        String plan = explain("" +
+                "SELECT c.id FROM category c " +
+                "WHERE to_tsvector('simple', coalesce(c.name, '')) @@ to_tsquery('simple', 'child:*') " +
+                "ORDER BY c.name, c.id LIMIT 21");
+        assertThat(plan).contains("Index Only Scan using category_name_id_idx")
+                .doesNotContain("Seq Scan")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void fullTextSearchUsesTextSearchIndex() throws SQLException {
+        String plan = explain("" +
+                "SELECT c.id FROM category c " +
+                "WHERE to_tsvector('simple', coalesce(c.name, '') || ' ' || coalesce(c.description, '')) " +
+                "      @@ plainto_tsquery('simple', 'root')");
+        assertThat(plan).contains("category_text_search_idx").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void categoryLookupByIdsUsesPrimaryKey() throws SQLException {
+        String plan = explain("SELECT * FROM category WHERE id = " + CHILD);
+        assertThat(plan).contains("category_pkey").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void cascadeLookupByParentUsesIndex() throws SQLException {
+        String plan = explain("SELECT 1 FROM ONLY category x WHERE parent_id = " + CHILD + " FOR KEY SHARE OF x");
+        assertThat(plan).contains("category_parent_id_name_idx").doesNotContain("Seq Scan");
+    }
+
+    private static String explain(final String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static void execute(final String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.EmbeddedPostgresTest;
+import com.task.product.catalog.domain.model.category.CategoryChangeType;
+import com.task.product.catalog.representation.category.CategoryChangeDto;
+import com.task.product.catalog.representation.category.CategoryChangeFeedDto;
+import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.representation.category.CategoryUpdateDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CategoryChangeFeedTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryChangeOutbox outbox;
+
+    @Autowired
+    private CategoryChangePublisher publisher;
+
+    @Test
+    void recordsEachCommittedWriteOnce() {
+        CategoryDto phones = categoryService.createCategory(new CategoryCreateDto("Phones", null, null));
+        categoryService.updateCategory(phones.getId(), new CategoryUpdateDto("Smartphones", null));
+
+        publisher.publishPending();
+
+        CategoryChangeFeedDto feed = categoryService.getChanges(0, 10);
+        assertThat(feed.getChanges())
+                .extracting(CategoryChangeDto::getType, CategoryChangeDto::getCategoryId)
+                .containsExactly(
+                        tuple(CategoryChangeType.CREATED, phones.getId()),
+                        tuple(CategoryChangeType.UPDATED, phones.getId()));
+        assertThat(feed.getChanges().get(0).getAffectedIds()).containsExactly(phones.getId());
+    }
+
+    @Test
+    void doesNotRecordRolledBackWrite() {
+        inTransaction().executeWithoutResult(status -> {
+            categoryService.createCategory(new CategoryCreateDto("Phones", null, null));
+            status.setRollbackOnly();
+        });
+
+        publisher.publishPending();
+
+        assertThat(categoryService.getChanges(0, 10).getChanges()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM category_change", Long.class)).isZero();
+    }
+
+    /*
+     * Изменение записано в outbox раньше, а закоммичено позже следующего: по id оно оказалось бы
+     * позади уже прочитанного потребителем, а позицию получает только после коммита.
+     */
+    @Test
+    void publishesLateCommitAfterConsumerCursor() throws Exception {
+        UUID lateId = UUID.randomUUID();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> lateWrite = CompletableFuture.runAsync(() ->
+                inTransaction().executeWithoutResult(status -> {
+                    outbox.record(CategoryChangeType.UPDATED, lateId, Collections.singletonList(lateId));
+                    recorded.countDown();
+                    await(commit);
+                }));
+        assertThat(recorded.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CategoryDto phones = categoryService.createCategory(new CategoryCreateDto("Phones", null, null));
+        publisher.publishPending();
+        CategoryChangeFeedDto first = categoryService.getChanges(0, 10);
+        assertThat(first.getChanges()).extracting(CategoryChangeDto::getCategoryId).containsExactly(phones.getId());
+
+        commit.countDown();
+        lateWrite.get(10, TimeUnit.SECONDS);
+        publisher.publishPending();
+
+        CategoryChangeFeedDto next = categoryService.getChanges(first.getNextSince(), 10);
+        assertThat(next.getChanges()).extracting(CategoryChangeDto::getCategoryId).containsExactly(lateId);
+    }
+
+    @Test
+    void pagesFeedWithNextSince() {
+        for (int i = 0; i < 3; i++) {
+            categoryService.createCategory(new CategoryCreateDto("Category " + i, null, null));
+        }
+        publisher.publishPending();
+
+        CategoryChangeFeedDto first = categoryService.getChanges(0, 2);
+        assertThat(first.getChanges()).hasSize(2);
+        assertThat(first.getNextSince()).isEqualTo(first.getChanges().get(1).getPosition());
+
+        CategoryChangeFeedDto second = categoryService.getChanges(first.getNextSince(), 2);
+        assertThat(second.getChanges()).hasSize(1);
+        assertThat(second.getChanges().get(0).getPosition()).isGreaterThan(first.getNextSince());
+
+        CategoryChangeFeedDto last = categoryService.getChanges(second.getNextSince(), 2);
+        assertThat(last.getChanges()).isEmpty();
+        assertThat(last.getNextSince()).isEqualTo(second.getNextSince());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.EmbeddedPostgresTest;
+import com.task.product.catalog.repository.category.CategoryJdbcRepository;
+import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryDeleteResultDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryDeleteTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryJdbcRepository categoryJdbcRepository;
+
+    private UUID catalog;
+    private UUID electronics;
+    private UUID books;
+
+    private UUID laptops;
+
+    /* Catalog > Electronics > (Phones > Smartphones > Android, Laptops), Catalog > Books. */
+    @BeforeEach
+    void createTree() {
+        catalog = create("Catalog", null);
+        electronics = create("Electronics", catalog);
+        UUID phones = create("Phones", electronics);
+        UUID smartphones = create("Smartphones", phones);
+        create("Android", smartphones);
+        laptops = create("Laptops", electronics);
+        books = create("Books", catalog);
+    }
+
+    @Test
+    void deletesSubtreeInChunks() {
+        CategoryDeleteResultDto result = categoryService.deleteCategory(electronics, 2);
+
+        assertThat(result.getCategories()).isEqualTo(5);
+        assertThat(result.getClosureRows()).isEqualTo(2 + 3 + 4 + 5 + 3);
+        assertThat(result.getChunks()).isEqualTo(3);
+        assertRemainingTree();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM category_change WHERE type = 'DELETED'", Long.class)).isEqualTo(3);
+    }
+
+    @Test
+    void deletesSubtreeInOneTransaction() {
+        CategoryDeleteResultDto result = categoryService.deleteCategory(electronics);
+
+        assertThat(result.getCategories()).isEqualTo(5);
+        assertThat(result.getClosureRows()).isEqualTo(2 + 3 + 4 + 5 + 3);
+        assertRemainingTree();
+    }
+
+    @Test
+    void deletesNothingForMissingCategory() {
+        CategoryDeleteResultDto result = categoryService.deleteCategory(UUID.randomUUID(), 2);
+
+        assertThat(result.getCategories()).isZero();
+        assertThat(result.getChunks()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM category", Long.class)).isEqualTo(7);
+    }
+
+    @Test
+    void deletesCategoryCreatedConcurrentlyInSubtree() throws Exception {
+        deleteWhileCreatingUnderLaptops(() -> categoryService.deleteCategory(electronics));
+    }
+
+    @Test
+    void deletesCategoryCreatedConcurrentlyInSubtreeInChunks() throws Exception {
+        deleteWhileCreatingUnderLaptops(() -> categoryService.deleteCategory(electronics, 2));
+    }
+
+    /*
+     * Создание под Laptops держит транзакцию открытой, пока удаление Electronics не начнет ждать блокировку.
+     * Удаление должно увидеть новую категорию и вычесть ее из счетчиков Catalog.
+     */
+    private void deleteWhileCreatingUnderLaptops(final Runnable delete) throws Exception {
+        CountDownLatch created = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> creation = CompletableFuture.runAsync(() ->
+                inTransaction().executeWithoutResult(status -> {
+                    create("Gaming laptops", laptops);
+                    created.countDown();
+                    await(commit);
+                }));
+        assertThat(created.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> deletion = CompletableFuture.runAsync(delete);
+        awaitBlockedTransaction();
+        commit.countDown();
+        creation.get(10, TimeUnit.SECONDS);
+        deletion.get(10, TimeUnit.SECONDS);
+
+        assertRemainingTree();
+        assertThat(categoryJdbcRepository.findCountDrift()).isEmpty();
+    }
+
+    private void awaitBlockedTransaction() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("SELECT count(*) FROM pg_locks WHERE NOT granted", Long.class) == 0) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void assertRemainingTree() {
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM category", UUID.class))
+                .containsExactlyInAnyOrder(catalog, books);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM category_closure", Long.class)).isEqualTo(3);
+        assertThat(counts(catalog)).containsExactly(1, 1);
+    }
+
+    private UUID create(final String name, final UUID parentId) {
+        return categoryService.createCategory(new CategoryCreateDto(name, null, parentId)).getId();
+    }
+
+    private List<Integer> counts(final UUID categoryId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT child_count, descendant_count FROM category WHERE id = ?",
+                (rs, rowNum) -> Arrays.asList(rs.getInt("child_count"), rs.getInt("descendant_count")),
+                categoryId);
+    }
+}
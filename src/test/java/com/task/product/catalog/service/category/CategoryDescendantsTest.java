@@ -0,0 +1,61 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.EmbeddedPostgresTest;
+import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.service.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CategoryDescendantsTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void limitsDescendantsByDepth() {
+        UUID electronics = create("Electronics", null);
+        UUID phones = create("Phones", electronics);
+        UUID android = create("Android", phones);
+
+        assertThat(categoryService.getDescendants(electronics, 1))
+                .extracting(CategoryDto::getId)
+                .containsExactly(phones);
+        assertThat(categoryService.getDescendants(electronics, null))
+                .extracting(CategoryDto::getId)
+                .containsExactlyInAnyOrder(phones, android);
+    }
+
+    @Test
+    void ordersSiblingsByName() {
+        UUID electronics = create("Electronics", null);
+        UUID phones = create("Phones", electronics);
+        create("Android", phones);
+        UUID laptops = create("Laptops", electronics);
+        UUID cameras = create("Cameras", electronics);
+
+        assertThat(categoryService.getDescendants(electronics, null))
+                .filteredOn(category -> electronics.equals(category.getParentId()))
+                .extracting(CategoryDto::getId)
+                .containsExactly(cameras, laptops, phones);
+    }
+
+    @Test
+    void rejectsNonPositiveMaxDepth() {
+        UUID electronics = create("Electronics", null);
+
+        assertThatThrownBy(() -> categoryService.getDescendants(electronics, 0))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> categoryService.getDescendants(electronics, -1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private UUID create(final String name, final UUID parentId) {
+        return categoryService.createCategory(new CategoryCreateDto(name, null, parentId)).getId();
+    }
+}
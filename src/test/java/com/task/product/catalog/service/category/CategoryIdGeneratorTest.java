@@ -0,0 +1,40 @@
+package com.task.product.catalog.service.category;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CategoryIdGeneratorTest {
+
+    @Test
+    void generatesRandomIdsByDefault() {
+        assertThat(new CategoryIdGenerator("random").nextId().version()).isEqualTo(4);
+    }
+
+    @Test
+    void generatesStrictlyIncreasingTimeOrderedIds() {
+        CategoryIdGenerator generator = new CategoryIdGenerator("time-ordered");
+        long before = System.currentTimeMillis();
+        UUID previous = generator.nextId();
+        assertThat(previous.version()).isEqualTo(7);
+        assertThat(previous.variant()).isEqualTo(2);
+        assertThat(previous.getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before);
+
+        /* Больше id, чем помещается в счетчик одной миллисекунды. */
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = generator.nextId();
+            /* Postgres сравнивает uuid побайтно, то есть как беззнаковые числа. */
+            assertThat(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()))
+                    .isPositive();
+            previous = next;
+        }
+    }
+
+    @Test
+    void rejectsUnknownStrategy() {
+        assertThatThrownBy(() -> new CategoryIdGenerator("sequential")).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.EmbeddedPostgresTest;
+import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryImportDto;
+import com.task.product.catalog.representation.category.CategoryImportResultDto;
+import com.task.product.catalog.service.NotFoundException;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/* Маленький пакет, чтобы ожидающие родителей категории переживали несколько сбросов пакета. */
+@TestPropertySource(properties = "catalog.category.import.batch-size=2")
+class CategoryImportTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryImportService importService;
+
+    @Test
+    void importsChildrenBeforeTheirParents() {
+        UUID catalog = categoryService.createCategory(new CategoryCreateDto("Catalog", null, null)).getId();
+        UUID electronics = UUID.randomUUID();
+        UUID phones = UUID.randomUUID();
+        UUID smartphones = UUID.randomUUID();
+        UUID android = UUID.randomUUID();
+        UUID books = UUID.randomUUID();
+        UUID music = UUID.randomUUID();
+
+        /* Catalog (уже в базе) > Electronics > Phones > Smartphones > Android, Catalog > Books, Music. */
+        CategoryImportResultDto result = importService.importCategories(Arrays.asList(
+                category(android, "Android", smartphones),
+                category(smartphones, "Smartphones", phones),
+                category(books, "Books", catalog),
+                category(phones, "Phones", electronics),
+                category(music, "Music", null),
+                category(electronics, "Electronics", catalog)
+        ).iterator());
+
+        assertThat(result.getCategories()).isEqualTo(6);
+        assertThat(result.getClosureRows()).isEqualTo(5 + 4 + 2 + 3 + 1 + 2);
+        assertThat(closure(android)).containsExactlyInAnyOrder(
+                tuple(catalog, 4), tuple(electronics, 3), tuple(phones, 2), tuple(smartphones, 1), tuple(android, 0));
+        assertThat(closure(books)).containsExactlyInAnyOrder(tuple(catalog, 1), tuple(books, 0));
+        assertThat(closure(music)).containsExactly(tuple(music, 0));
+        assertThat(counts(catalog)).containsExactly(2, 5);
+        assertThat(counts(electronics)).containsExactly(1, 3);
+        assertThat(counts(smartphones)).containsExactly(1, 1);
+        assertThat(counts(android)).containsExactly(0, 0);
+    }
+
+    @Test
+    void rejectsMissingParentWithoutWritingAnything() {
+        List<CategoryImportDto> categories = Arrays.asList(
+                category(UUID.randomUUID(), "Root", null),
+                category(UUID.randomUUID(), "Orphan", UUID.randomUUID()));
+
+        assertThatThrownBy(() -> importService.importCategories(categories.iterator()))
+                .isInstanceOf(NotFoundException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM category", Long.class)).isZero();
+    }
+
+    private static CategoryImportDto category(final UUID id, final String name, final UUID parentId) {
+        return new CategoryImportDto(id, name, null, parentId);
+    }
+
+    private List<Tuple> closure(final UUID descendantId) {
+        return jdbcTemplate.query(
+                "SELECT ancestor_id, depth FROM category_closure WHERE descendant_id = ?",
+                (rs, rowNum) -> tuple(rs.getObject("ancestor_id"), rs.getInt("depth")),
+                descendantId);
+    }
+
+    private List<Integer> counts(final UUID categoryId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT child_count, descendant_count FROM category WHERE id = ?",
+                (rs, rowNum) -> Arrays.asList(rs.getInt("child_count"), rs.getInt("descendant_count")),
+                categoryId);
+    }
+}
@@ -0,0 +1,106 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.EmbeddedPostgresTest;
+import com.task.product.catalog.representation.category.CategoryCreateDto;
+import com.task.product.catalog.representation.category.CategoryDto;
+import com.task.product.catalog.service.BadRequestException;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CategoryMoveTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    private UUID electronics;
+    private UUID phones;
+    private UUID smartphones;
+    private UUID android;
+    private UUID books;
+    private UUID fiction;
+
+    /* Electronics > Phones > Smartphones > Android, Books > Fiction. */
+    @BeforeEach
+    void createTree() {
+        electronics = create("Electronics", null);
+        phones = create("Phones", electronics);
+        smartphones = create("Smartphones", phones);
+        android = create("Android", smartphones);
+        books = create("Books", null);
+        fiction = create("Fiction", books);
+    }
+
+    @Test
+    void relinksMovedSubtreeToNewAncestors() {
+        categoryService.moveCategory(smartphones, fiction);
+
+        assertThat(closure(smartphones)).containsExactlyInAnyOrder(
+                tuple(books, 2), tuple(fiction, 1), tuple(smartphones, 0));
+        assertThat(closure(android)).containsExactlyInAnyOrder(
+                tuple(books, 3), tuple(fiction, 2), tuple(smartphones, 1), tuple(android, 0));
+        assertThat(categoryService.getCategory(smartphones).getParentId()).isEqualTo(fiction);
+    }
+
+    @Test
+    void movesCountsFromOldToNewAncestors() {
+        categoryService.moveCategory(smartphones, fiction);
+
+        assertThat(counts(electronics)).containsExactly(1, 1);
+        assertThat(counts(phones)).containsExactly(0, 0);
+        assertThat(counts(books)).containsExactly(1, 3);
+        assertThat(counts(fiction)).containsExactly(1, 2);
+        assertThat(counts(smartphones)).containsExactly(1, 1);
+    }
+
+    @Test
+    void movesSubtreeToRoot() {
+        categoryService.moveCategory(smartphones, null);
+
+        assertThat(closure(android)).containsExactlyInAnyOrder(tuple(smartphones, 1), tuple(android, 0));
+        assertThat(counts(electronics)).containsExactly(1, 1);
+        assertThat(categoryService.getRootCategories())
+                .extracting(CategoryDto::getId)
+                .containsExactlyInAnyOrder(books, electronics, smartphones);
+    }
+
+    @Test
+    void rejectsMoveUnderDescendantOrItself() {
+        assertThatThrownBy(() -> categoryService.moveCategory(phones, android))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> categoryService.moveCategory(phones, phones))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(closure(android)).containsExactlyInAnyOrder(
+                tuple(electronics, 3), tuple(phones, 2), tuple(smartphones, 1), tuple(android, 0));
+        assertThat(counts(electronics)).containsExactly(1, 3);
+    }
+
+    private UUID create(final String name, final UUID parentId) {
+        return categoryService.createCategory(new CategoryCreateDto(name, null, parentId)).getId();
+    }
+
+    private List<Tuple> closure(final UUID descendantId) {
+        return jdbcTemplate.query(
+                "SELECT ancestor_id, depth FROM category_closure WHERE descendant_id = ?",
+                (rs, rowNum) -> tuple(rs.getObject("ancestor_id"), rs.getInt("depth")),
+                descendantId);
+    }
+
+    /* Количество детей и потомков из базы, в обход кэша. */
+    private List<Integer> counts(final UUID categoryId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT child_count, descendant_count FROM category WHERE id = ?",
+                (rs, rowNum) -> Arrays.asList(rs.getInt("child_count"), rs.getInt("descendant_count")),
+                categoryId);
+    }
+}
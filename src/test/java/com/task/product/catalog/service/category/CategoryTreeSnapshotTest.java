@@ -0,0 +1,94 @@
+package com.task.product.catalog.service.category;
+
+import com.task.product.catalog.representation.category.CategoryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTreeSnapshotTest {
+
+    private final CategoryDto electronics = category("Electronics", null);
+    private final CategoryDto books = category("Books", null);
+    private final CategoryDto phones = category("Phones", electronics.getId());
+    private final CategoryDto laptops = category("Laptops", electronics.getId());
+    private final CategoryDto android = category("Android", phones.getId());
+    private final CategoryDto fiction = category("Fiction", books.getId());
+
+    /* Порядок по имени, как его возвращает база. */
+    private final CategoryTreeSnapshot snapshot = CategoryTreeSnapshot.build(
+            Arrays.asList(android, books, electronics, fiction, laptops, phones));
+
+    @Test
+    void returnsRootsAndChildrenInNameOrder() {
+        assertThat(ids(snapshot.getRootCategories())).containsExactly(books.getId(), electronics.getId());
+
+        Page<CategoryDto> children = snapshot.getChildren(electronics.getId(), PageRequest.of(0, 10));
+        assertThat(ids(children.getContent())).containsExactly(laptops.getId(), phones.getId());
+        assertThat(children.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void pagesChildren() {
+        Page<CategoryDto> secondPage = snapshot.getChildren(electronics.getId(), PageRequest.of(1, 1));
+        assertThat(ids(secondPage.getContent())).containsExactly(phones.getId());
+
+        assertThat(snapshot.getChildren(electronics.getId(), PageRequest.of(2, 1)).hasContent()).isFalse();
+        assertThat(snapshot.getChildren(UUID.randomUUID(), PageRequest.of(0, 10)).hasContent()).isFalse();
+    }
+
+    @Test
+    void returnsDescendantsWithoutTheCategoryItself() {
+        assertThat(snapshot.getDescendants(electronics.getId(), null).get())
+                .extracting(CategoryDto::getId)
+                .containsExactlyInAnyOrder(phones.getId(), laptops.getId(), android.getId());
+        assertThat(snapshot.getDescendants(android.getId(), null).get()).isEmpty();
+        assertThat(snapshot.getDescendants(UUID.randomUUID(), null)).isEmpty();
+    }
+
+    @Test
+    void limitsDescendantsByDepth() {
+        assertThat(snapshot.getDescendants(electronics.getId(), 1).get())
+                .extracting(CategoryDto::getId)
+                .containsExactlyInAnyOrder(phones.getId(), laptops.getId());
+        assertThat(snapshot.getDescendants(electronics.getId(), 2).get()).hasSize(3);
+    }
+
+    @Test
+    void returnsPathFromRoot() {
+        assertThat(ids(snapshot.getAncestors(android.getId()).get()))
+                .containsExactly(electronics.getId(), phones.getId(), android.getId());
+        assertThat(ids(snapshot.getAncestors(books.getId()).get())).containsExactly(books.getId());
+    }
+
+    @Test
+    void countsChildrenAndDescendants() {
+        CategoryDto electronicsNode = snapshot.getCategory(electronics.getId()).get();
+        assertThat(electronicsNode.getChildCount()).isEqualTo(2);
+        assertThat(electronicsNode.getDescendantCount()).isEqualTo(3);
+
+        CategoryDto androidNode = snapshot.getCategory(android.getId()).get();
+        assertThat(androidNode.getChildCount()).isZero();
+        assertThat(androidNode.getDescendantCount()).isZero();
+    }
+
+    @Test
+    void returnsAllCategories() {
+        assertThat(snapshot.getCategories()).hasSize(6);
+        assertThat(snapshot.getCategory(android.getId()).get().getParentId()).isEqualTo(phones.getId());
+    }
+
+    private static CategoryDto category(final String name, final UUID parentId) {
+        return new CategoryDto(UUID.randomUUID(), name, name + " description", parentId);
+    }
+
+    private static List<UUID> ids(final List<CategoryDto> categories) {
+        return categories.stream().map(CategoryDto::getId).collect(Collectors.toList());
+    }
+}